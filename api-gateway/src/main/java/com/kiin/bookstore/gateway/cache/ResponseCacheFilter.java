@@ -0,0 +1,295 @@
+package com.kiin.bookstore.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Caches anonymous GET responses of the routes listed in gateway.response-cache.routes.
+// Concurrent misses for the same key are coalesced: only the first one is proxied upstream,
+// the others wait for its response and are served from the cache.
+// Each variant of a resource is cached separately, keyed by the request headers the upstream names in Vary.
+@Component
+class ResponseCacheFilter implements GlobalFilter, Ordered {
+    private static final List<String> KEY_HEADERS =
+            List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ORIGIN);
+    private static final Pattern MAX_AGE = Pattern.compile("(?:s-maxage|max-age)=(\\d+)");
+    private static final Set<String> NOT_CACHED_HEADERS = Set.of(
+            HttpHeaders.TRANSFER_ENCODING,
+            HttpHeaders.CONNECTION,
+            HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.DATE,
+            HttpHeaders.AGE,
+            HttpHeaders.SET_COOKIE);
+
+    private final ResponseCacheProperties properties;
+    private final Cache<String, CachedResponse> cache;
+    // Vary of the last response stored per resource, so a lookup knows which request headers pick the variant
+    private final Cache<String, List<String>> varyHeaders;
+    private final Map<String, CompletableFuture<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalescedRequests;
+
+    ResponseCacheFilter(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maxEntries())
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+                        return response.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(
+                            String key, CachedResponse response, long currentTime, long currentDuration) {
+                        return response.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(
+                            String key, CachedResponse response, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        this.varyHeaders =
+                Caffeine.newBuilder().maximumSize(properties.maxEntries()).build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway-responses");
+        this.coalescedRequests = Counter.builder("gateway.response.cache.coalesced")
+                .description("Cache misses that waited for an identical in-flight upstream request")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public int getOrder() {
+        // Must wrap the response before NettyWriteResponseFilter writes the upstream body
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        Duration routeTtl = route == null ? null : properties.routes().get(route.getId());
+        if (routeTtl == null || !isCacheable(exchange.getRequest())) {
+            return chain.filter(exchange);
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        List<String> vary = varyHeaders.getIfPresent(resource(request));
+        String key = cacheKey(request, vary == null ? List.of() : vary);
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return write(exchange, cached);
+        }
+
+        CompletableFuture<CachedResponse> pending = new CompletableFuture<>();
+        CompletableFuture<CachedResponse> leader = inFlight.putIfAbsent(key, pending);
+        if (leader != null) {
+            coalescedRequests.increment();
+            // Falls back to its own upstream call if the leader's response turned out not to be cacheable,
+            // or is a different variant than this request asked for
+            return Mono.fromFuture(leader)
+                    .timeout(properties.coalescingTimeout())
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .onErrorReturn(Optional.empty())
+                    .map(response -> response.filter(cachedResponse -> isVariantOf(cachedResponse, request)))
+                    .flatMap(response ->
+                            response.isPresent() ? write(exchange, response.get()) : chain.filter(exchange));
+        }
+
+        CachingResponseDecorator response = new CachingResponseDecorator(exchange.getResponse(), request, routeTtl);
+        return chain.filter(exchange.mutate().response(response).build()).doFinally(signal -> {
+            inFlight.remove(key, pending);
+            pending.complete(response.stored);
+        });
+    }
+
+    private static boolean isCacheable(ServerHttpRequest request) {
+        if (request.getMethod() != HttpMethod.GET || request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
+            return false;
+        }
+        String cacheControl = request.getHeaders().getCacheControl();
+        return cacheControl == null || !(cacheControl.contains("no-cache") || cacheControl.contains("no-store"));
+    }
+
+    private static String resource(ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        return request.getURI().getRawPath() + (query == null ? "" : "?" + query);
+    }
+
+    // Accept and Accept-Encoding select the representation even when upstream doesn't say so,
+    // Origin is always part of the key because the cached CORS headers depend on it
+    private static String cacheKey(ServerHttpRequest request, List<String> vary) {
+        StringBuilder key = new StringBuilder(resource(request));
+        Set<String> names = new LinkedHashSet<>();
+        Stream.concat(KEY_HEADERS.stream(), vary.stream())
+                .map(name -> name.toLowerCase(Locale.ROOT))
+                .forEach(names::add);
+        for (String name : names) {
+            key.append('|')
+                    .append(name)
+                    .append('=')
+                    .append(String.join(",", request.getHeaders().getOrEmpty(name)));
+        }
+        return key.toString();
+    }
+
+    // A coalesced request may only reuse the leader's response if it asked for the same variant
+    private static boolean isVariantOf(CachedResponse response, ServerHttpRequest request) {
+        return response.key().equals(cacheKey(request, response.vary()));
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().putAll(cached.headers());
+        response.getHeaders().set("X-Cache", "HIT");
+        // max-age is replayed as stored, so Age tells clients how much of it has already been used up
+        response.getHeaders().set(HttpHeaders.AGE, String.valueOf(cached.age()));
+        String eTag = cached.headers().getETag();
+        if (eTag != null && exchange.getRequest().getHeaders().getIfNoneMatch().contains(eTag)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(cached.status());
+        response.getHeaders().setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    // Honours the upstream Cache-Control: never stores no-store/no-cache/private, and never longer than max-age
+    private static Duration responseTtl(HttpStatusCode status, HttpHeaders headers, Duration routeTtl) {
+        if (status == null || status.value() != HttpStatus.OK.value()) {
+            return null;
+        }
+        if (headers.getVary().contains("*")) {
+            return null;
+        }
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl == null) {
+            return routeTtl;
+        }
+        String directives = cacheControl.toLowerCase(Locale.ROOT);
+        if (directives.contains("no-store") || directives.contains("no-cache") || directives.contains("private")) {
+            return null;
+        }
+        Matcher maxAge = MAX_AGE.matcher(directives);
+        if (maxAge.find()) {
+            // Whatever upstream already spent of max-age is not available to this cache
+            Duration ttl = Duration.ofSeconds(Long.parseLong(maxAge.group(1)) - upstreamAge(headers));
+            return ttl.isZero() || ttl.isNegative() ? null : (ttl.compareTo(routeTtl) < 0 ? ttl : routeTtl);
+        }
+        return routeTtl;
+    }
+
+    private static HttpHeaders cachedHeaders(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (NOT_CACHED_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                copy.addAll(name, values);
+            }
+        });
+        return HttpHeaders.readOnlyHttpHeaders(copy);
+    }
+
+    // The Age received from upstream is added to the time the response has spent in this cache
+    private static long upstreamAge(HttpHeaders headers) {
+        try {
+            String age = headers.getFirst(HttpHeaders.AGE);
+            return age == null ? 0 : Math.max(0, Long.parseLong(age.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private record CachedResponse(
+            String key,
+            List<String> vary,
+            HttpStatusCode status,
+            HttpHeaders headers,
+            byte[] body,
+            Duration ttl,
+            long upstreamAge,
+            Instant storedAt) {
+
+        long age() {
+            return upstreamAge + Duration.between(storedAt, Instant.now()).toSeconds();
+        }
+    }
+
+    private class CachingResponseDecorator extends ServerHttpResponseDecorator {
+        private final ServerHttpRequest request;
+        private final Duration routeTtl;
+        private volatile CachedResponse stored;
+
+        CachingResponseDecorator(ServerHttpResponse delegate, ServerHttpRequest request, Duration routeTtl) {
+            super(delegate);
+            this.request = request;
+            this.routeTtl = routeTtl;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            Duration ttl = responseTtl(getStatusCode(), getHeaders(), routeTtl);
+            long contentLength = getHeaders().getContentLength();
+            if (ttl == null || contentLength > properties.maxEntrySize().toBytes()) {
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(Flux.from(body)).flatMap(buffer -> {
+                byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+                DataBufferUtils.release(buffer);
+                if (bytes.length <= properties.maxEntrySize().toBytes()) {
+                    List<String> vary = List.copyOf(getHeaders().getVary());
+                    String key = cacheKey(request, vary);
+                    stored = new CachedResponse(
+                            key,
+                            vary,
+                            getStatusCode(),
+                            cachedHeaders(getHeaders()),
+                            bytes,
+                            ttl,
+                            upstreamAge(getHeaders()),
+                            Instant.now());
+                    varyHeaders.put(resource(request), vary);
+                    cache.put(key, stored);
+                }
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            });
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.kiin.bookstore.gateway.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+// routes: route id -> TTL. Only routes listed here are cached.
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public record ResponseCacheProperties(
+        @DefaultValue("1000") long maxEntries,
+        @DefaultValue("1MB") DataSize maxEntrySize,
+        @DefaultValue("5s") Duration coalescingTimeout,
+        Map<String, Duration> routes) {
+
+    public ResponseCacheProperties {
+        routes = routes == null ? Map.of() : routes;
+    }
+}
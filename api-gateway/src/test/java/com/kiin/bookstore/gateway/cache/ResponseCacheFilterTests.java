@@ -0,0 +1,103 @@
+package com.kiin.bookstore.gateway.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+class ResponseCacheFilterTests {
+    private static final Route ROUTE = Route.async()
+            .id("catalog-service")
+            .uri("http://localhost:8081")
+            .predicate(exchange -> true)
+            .build();
+
+    private final ResponseCacheFilter filter = new ResponseCacheFilter(
+            new ResponseCacheProperties(
+                    100,
+                    DataSize.ofMegabytes(1),
+                    Duration.ofSeconds(5),
+                    Map.of("catalog-service", Duration.ofMinutes(1))),
+            new SimpleMeterRegistry());
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @Test
+    void shouldCacheEachVariantNamedInVary() {
+        MockServerWebExchange english = send("en");
+        MockServerWebExchange vietnamese = send("vi");
+        MockServerWebExchange englishAgain = send("en");
+
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(english.getResponse().getBodyAsString().block()).isEqualTo("products:en");
+        assertThat(vietnamese.getResponse().getBodyAsString().block()).isEqualTo("products:vi");
+        assertThat(englishAgain.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+        assertThat(englishAgain.getResponse().getBodyAsString().block()).isEqualTo("products:en");
+    }
+
+    @Test
+    void shouldNotShareResponsesAcrossAcceptEncodings() {
+        send("en");
+        MockServerWebExchange gzip = exchange(MockServerHttpRequest.get("/catalog/api/products")
+                .header(HttpHeaders.ACCEPT_LANGUAGE, "en")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+        filter.filter(gzip, upstream()).block();
+
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(gzip.getResponse().getHeaders().getFirst("X-Cache")).isNull();
+    }
+
+    @Test
+    void shouldSetAgeOnCachedResponses() {
+        send("en");
+        MockServerWebExchange hit = send("en");
+
+        assertThat(hit.getResponse().getHeaders().getFirst(HttpHeaders.AGE)).isEqualTo("30");
+        assertThat(hit.getResponse().getHeaders().getCacheControl()).isEqualTo("max-age=60");
+    }
+
+    private MockServerWebExchange send(String language) {
+        MockServerWebExchange exchange = exchange(
+                MockServerHttpRequest.get("/catalog/api/products").header(HttpHeaders.ACCEPT_LANGUAGE, language));
+        filter.filter(exchange, upstream()).block();
+        return exchange;
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, ROUTE);
+        return exchange;
+    }
+
+    // Answers in the requested language and reports an Age of 30s, as a shared cache in front of it would
+    private GatewayFilterChain upstream() {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            String language = exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT_LANGUAGE);
+            byte[] body = ("products:" + language).getBytes(StandardCharsets.UTF_8);
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+            response.getHeaders().setContentLength(body.length);
+            response.getHeaders().setCacheControl("max-age=60");
+            response.getHeaders().setVary(List.of(HttpHeaders.ACCEPT_LANGUAGE));
+            response.getHeaders().set(HttpHeaders.AGE, "30");
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        };
+    }
+}
@@ -1,6 +1,7 @@
 package com.kiin.bookstore.catalog;
 
 import jakarta.validation.constraints.Min;
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.DefaultValue;
 import org.springframework.validation.annotation.Validated;
@@ -8,4 +9,10 @@ import org.springframework.validation.annotation.Validated;
 // Lay properties tu file cau hinh (yml)
 @Validated // Throw exception neu cau hinh loi
 @ConfigurationProperties(prefix = "catalog")
-public record ApplicationProperties(@DefaultValue("10") @Min(1) int pageSize) {}
+public record ApplicationProperties(
+        @DefaultValue("10") @Min(1) int pageSize,
+        @DefaultValue("30s") Duration productCountTtl,
+        @DefaultValue("30s") Duration httpCacheMaxAge,
+        @DefaultValue("catalog-events") String catalogEventsExchange,
+        @DefaultValue("100") @Min(1) int publishProductEventsBatchSize,
+        @DefaultValue("10s") Duration publisherConfirmTimeout) {}
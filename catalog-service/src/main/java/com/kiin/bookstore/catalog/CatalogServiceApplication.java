@@ -3,9 +3,11 @@ package com.kiin.bookstore.catalog;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @ConfigurationPropertiesScan // enable scanning de dung ConfigurationProperties
+@EnableScheduling // relay product events tu outbox
 public class CatalogServiceApplication {
 
     public static void main(String[] args) {
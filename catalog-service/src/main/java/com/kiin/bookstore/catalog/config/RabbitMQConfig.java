@@ -0,0 +1,46 @@
+package com.kiin.bookstore.catalog.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kiin.bookstore.catalog.ApplicationProperties;
+import com.kiin.bookstore.catalog.domain.ProductEventType;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+class RabbitMQConfig {
+    private final ApplicationProperties properties;
+
+    RabbitMQConfig(ApplicationProperties properties) {
+        this.properties = properties;
+    }
+
+    // Consumers declare and bind their own queues, e.g. order-service binds product.# to invalidate its cache
+    @Bean
+    TopicExchange catalogEventsExchange() {
+        return new TopicExchange(properties.catalogEventsExchange());
+    }
+
+    // One auto-deleted queue per instance, so every catalog-service instance updates its own search index
+    @Bean
+    Queue productSearchIndexQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    Binding productSearchIndexQueueBinding() {
+        return BindingBuilder.bind(productSearchIndexQueue())
+                .to(catalogEventsExchange())
+                .with(ProductEventType.PRODUCT_UPDATED.routingKey());
+    }
+
+    @Bean
+    Jackson2JsonMessageConverter jacksonConverter(ObjectMapper objectMapper) {
+        return new Jackson2JsonMessageConverter(objectMapper);
+    }
+}
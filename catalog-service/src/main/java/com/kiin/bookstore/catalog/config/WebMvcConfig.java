@@ -1,6 +1,9 @@
 package com.kiin.bookstore.catalog.config;
 
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -15,4 +18,13 @@ class WebMvcConfig implements WebMvcConfigurer {
                 .allowedOriginPatterns("*")
                 .allowCredentials(false);
     }
+
+    // Product detail computes its ETag from the row version, listings fall back to hashing the response body
+    @Bean
+    FilterRegistrationBean<ShallowEtagHeaderFilter> productListingEtagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+                new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/api/products", "/api/products/search");
+        return registration;
+    }
 }
@@ -0,0 +1,5 @@
+package com.kiin.bookstore.catalog.domain;
+
+import java.util.List;
+
+public record CursorResult<T>(List<T> data, String nextCursor, boolean hasNext) {}
@@ -0,0 +1,11 @@
+package com.kiin.bookstore.catalog.domain;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+    public static InvalidCursorException forCursor(String cursor) {
+        return new InvalidCursorException("Invalid cursor " + cursor);
+    }
+}
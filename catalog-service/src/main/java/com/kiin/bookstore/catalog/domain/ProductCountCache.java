@@ -0,0 +1,41 @@
+package com.kiin.bookstore.catalog.domain;
+
+import com.kiin.bookstore.catalog.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import org.springframework.stereotype.Component;
+
+// The catalog is read far more often than it changes, so the product total is reused across listing requests.
+// Products are only added or removed by migrations, so the total is just refreshed when the TTL runs out.
+@Component
+class ProductCountCache {
+    private final ProductRepository productRepository;
+    private final Duration ttl;
+    private final Counter countQueriesAvoided;
+
+    private volatile CachedCount cachedCount;
+
+    ProductCountCache(
+            ProductRepository productRepository, ApplicationProperties properties, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.ttl = properties.productCountTtl();
+        this.countQueriesAvoided = Counter.builder("catalog.products.count.queries.avoided")
+                .description("Product listing requests served with the cached product count")
+                .register(meterRegistry);
+    }
+
+    long get() {
+        CachedCount current = cachedCount;
+        if (current != null && Instant.now().isBefore(current.expiresAt())) {
+            countQueriesAvoided.increment();
+            return current.count();
+        }
+        long count = productRepository.count();
+        cachedCount = new CachedCount(count, Instant.now().plus(ttl));
+        return count;
+    }
+
+    private record CachedCount(long count, Instant expiresAt) {}
+}
@@ -0,0 +1,30 @@
+package com.kiin.bookstore.catalog.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque position of the last product returned, encoded as base64url("<id>:<name>")
+record ProductCursor(String name, Long id) {
+
+    static ProductCursor of(ProductEntity product) {
+        return new ProductCursor(product.getName(), product.getId());
+    }
+
+    String encode() {
+        String value = id + ":" + name;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ProductCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(':');
+            if (separator <= 0) {
+                throw InvalidCursorException.forCursor(cursor);
+            }
+            return new ProductCursor(value.substring(separator + 1), Long.parseLong(value.substring(0, separator)));
+        } catch (IllegalArgumentException e) {
+            throw InvalidCursorException.forCursor(cursor);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.kiin.bookstore.catalog.domain;
+
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+interface ProductEventRepository extends JpaRepository<ProductEventEntity, Long> {
+
+    // Same claiming scheme as the order-service outbox, every catalog instance can relay in parallel
+    @Query(
+            value =
+                    """
+            select * from product_events
+            order by created_at, id
+            limit :batchSize
+            for update skip locked
+            """,
+            nativeQuery = true)
+    List<ProductEventEntity> findNextBatchForPublishing(int batchSize);
+}
@@ -0,0 +1,122 @@
+package com.kiin.bookstore.catalog.domain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kiin.bookstore.catalog.ApplicationProperties;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+@Transactional
+public class ProductEventService {
+    private static final Logger log = LoggerFactory.getLogger(ProductEventService.class);
+
+    private final ProductEventRepository productEventRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationProperties properties;
+    private final boolean publisherConfirms;
+
+    ProductEventService(
+            ProductEventRepository productEventRepository,
+            RabbitTemplate rabbitTemplate,
+            ObjectMapper objectMapper,
+            TransactionTemplate transactionTemplate,
+            ApplicationProperties properties) {
+        this.productEventRepository = productEventRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.publisherConfirms = rabbitTemplate.getConnectionFactory().isSimplePublisherConfirms();
+        if (!publisherConfirms) {
+            log.warn("Publisher confirms are disabled, product events are published without broker acknowledgement");
+        }
+    }
+
+    // Must be called inside the transaction that changed the product, so the event commits or rolls back with it
+    void save(Object event) {
+        ProductEventEntity productEvent = new ProductEventEntity();
+        switch (event) {
+            case ProductUpdatedEvent e -> {
+                productEvent.setEventId(e.eventId());
+                productEvent.setEventType(ProductEventType.PRODUCT_UPDATED);
+                productEvent.setProductCode(e.code());
+                productEvent.setCreatedAt(e.createdAt());
+            }
+            case ProductPriceChangedEvent e -> {
+                productEvent.setEventId(e.eventId());
+                productEvent.setEventType(ProductEventType.PRODUCT_PRICE_CHANGED);
+                productEvent.setProductCode(e.code());
+                productEvent.setCreatedAt(e.createdAt());
+            }
+            default -> throw new IllegalArgumentException("Unsupported product event: " + event.getClass());
+        }
+        productEvent.setPayload(toJsonPayload(event));
+        productEventRepository.save(productEvent);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void publishProductEvents() {
+        int publishedCount = 0;
+        int batchCount;
+        do {
+            Integer count = transactionTemplate.execute(status -> this.publishNextBatch());
+            batchCount = count == null ? 0 : count;
+            publishedCount += batchCount;
+        } while (batchCount == properties.publishProductEventsBatchSize());
+        if (publishedCount > 0) {
+            log.info("Published {} Product Events", publishedCount);
+        }
+    }
+
+    // The stored payload is already JSON, so it is sent as is. A failed confirm rolls back the batch
+    // and it is sent again on the next run; consumers only invalidate caches, so duplicates are harmless.
+    private int publishNextBatch() {
+        List<ProductEventEntity> events =
+                productEventRepository.findNextBatchForPublishing(properties.publishProductEventsBatchSize());
+        if (events.isEmpty()) {
+            return 0;
+        }
+        rabbitTemplate.invoke(operations -> {
+            for (ProductEventEntity event : events) {
+                operations.send(
+                        properties.catalogEventsExchange(), event.getEventType().routingKey(), toMessage(event));
+            }
+            if (publisherConfirms) {
+                operations.waitForConfirmsOrDie(
+                        properties.publisherConfirmTimeout().toMillis());
+            }
+            return null;
+        });
+        productEventRepository.deleteAllInBatch(events);
+        return events.size();
+    }
+
+    private Message toMessage(ProductEventEntity event) {
+        return MessageBuilder.withBody(event.getPayload().getBytes(StandardCharsets.UTF_8))
+                .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                .setContentEncoding(StandardCharsets.UTF_8.name())
+                .setMessageId(event.getEventId())
+                .build();
+    }
+
+    private String toJsonPayload(Object object) {
+        try {
+            return objectMapper.writeValueAsString(object);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
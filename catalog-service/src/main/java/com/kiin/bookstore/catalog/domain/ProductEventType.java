@@ -0,0 +1,16 @@
+package com.kiin.bookstore.catalog.domain;
+
+public enum ProductEventType {
+    PRODUCT_UPDATED("product.updated"),
+    PRODUCT_PRICE_CHANGED("product.price-changed");
+
+    private final String routingKey;
+
+    ProductEventType(String routingKey) {
+        this.routingKey = routingKey;
+    }
+
+    public String routingKey() {
+        return routingKey;
+    }
+}
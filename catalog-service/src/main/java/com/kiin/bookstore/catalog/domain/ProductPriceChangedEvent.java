@@ -0,0 +1,7 @@
+package com.kiin.bookstore.catalog.domain;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record ProductPriceChangedEvent(
+        String eventId, String code, BigDecimal oldPrice, BigDecimal newPrice, long version, Instant createdAt) {}
@@ -1,8 +1,40 @@
 package com.kiin.bookstore.catalog.domain;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 interface ProductRepository extends JpaRepository<ProductEntity, Long> {
     Optional<ProductEntity> findByCode(String code);
+
+    @Query(
+            """
+        select new com.kiin.bookstore.catalog.domain.ProductVersion(p.version, p.updatedAt)
+        from ProductEntity p
+        where p.code = :code
+        """)
+    Optional<ProductVersion> findVersionByCode(String code);
+
+    List<ProductEntity> findByCodeIn(Collection<String> codes);
+
+    // Returns only the page content, the total comes from ProductCountCache
+    List<ProductEntity> findAllBy(Pageable pageable);
+
+    @Query(value = "select * from products order by name, id limit :limit", nativeQuery = true)
+    List<ProductEntity> findFirstPageOrderByName(int limit);
+
+    // Row comparison lets Postgres seek directly on products_name_id_idx instead of scanning with OFFSET
+    @Query(
+            value =
+                    """
+            select * from products
+            where (name, id) > (:name, :id)
+            order by name, id
+            limit :limit
+            """,
+            nativeQuery = true)
+    List<ProductEntity> findPageAfterOrderByName(String name, Long id, int limit);
 }
@@ -0,0 +1,189 @@
+package com.kiin.bookstore.catalog.domain;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// In-memory inverted index over product name and description.
+// Every query token must match (exactly or as a prefix), results are ranked by a tf-idf style score.
+// Each instance keeps its own copy: updates made here are indexed after commit, updates made by other instances
+// arrive as product.updated events. The entity version keeps a late event from overwriting a newer entry.
+@Component
+class ProductSearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final double PREFIX_MATCH_BOOST = 0.5;
+
+    private final ProductRepository productRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (product code -> weighted term frequency), sorted so prefixes can be looked up as a range
+    private final NavigableMap<String, Map<String, Integer>> postings = new TreeMap<>();
+    private final Map<String, Product> products = new HashMap<>();
+    private final Map<String, Set<String>> termsByCode = new HashMap<>();
+    private final Map<String, Long> versions = new HashMap<>();
+
+    ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    // The listener container is already running, so an update may have been indexed since findAll read its
+    // snapshot. The snapshot is merged by version like any update instead of replacing the index.
+    @EventListener(ApplicationReadyEvent.class)
+    void rebuild() {
+        List<ProductEntity> allProducts = productRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            allProducts.forEach(entity -> this.indexVersion(
+                    ProductMapper.toProduct(entity), entity.getVersion() == null ? 0 : entity.getVersion()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indexed {} products for search", allProducts.size());
+    }
+
+    void index(Product product, long version) {
+        lock.writeLock().lock();
+        try {
+            this.indexVersion(product, version);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Must hold the write lock. An entry is only replaced by the same or a newer version of the product.
+    private void indexVersion(Product product, long version) {
+        if (version < versions.getOrDefault(product.code(), Long.MIN_VALUE)) {
+            return;
+        }
+        this.removeFromIndex(product.code());
+        this.add(product);
+        versions.put(product.code(), version);
+    }
+
+    // Runs after commit, so a rolled back update never shows up in search results
+    @TransactionalEventListener
+    void onProductUpdated(ProductUpdatedEvent event) {
+        this.index(toProduct(event), event.version());
+    }
+
+    // Updates committed by any instance, including this one, once the outbox relay has published them
+    @RabbitListener(queues = "#{productSearchIndexQueue.name}")
+    void onProductUpdatedMessage(ProductUpdatedEvent event) {
+        this.index(toProduct(event), event.version());
+    }
+
+    List<Product> search(String query, int limit) {
+        List<String> tokens = tokenize(query).stream().distinct().toList();
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Map<String, Double> scores = null;
+            for (String token : tokens) {
+                Map<String, Double> tokenScores = this.score(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((code, score) -> score + tokenScores.get(code));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<String, Double>comparingByValue()
+                            .reversed()
+                            .thenComparing(entry -> products.get(entry.getKey()).name()))
+                    .limit(limit)
+                    .map(entry -> products.get(entry.getKey()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Product toProduct(ProductUpdatedEvent event) {
+        return new Product(event.code(), event.name(), event.description(), event.imageUrl(), event.price());
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS
+                .matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(TOKEN_SEPARATOR.split(normalized))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private Map<String, Double> score(String token) {
+        Map<String, Map<String, Integer>> matches = token.length() < MIN_PREFIX_LENGTH
+                ? exactMatch(token)
+                : postings.subMap(token, true, token + Character.MAX_VALUE, false);
+        Map<String, Double> scores = new HashMap<>();
+        matches.forEach((term, frequencies) -> {
+            double idf = Math.log(1 + (double) products.size() / frequencies.size());
+            double boost = term.equals(token) ? 1.0 : PREFIX_MATCH_BOOST;
+            frequencies.forEach(
+                    (code, frequency) -> scores.merge(code, boost * idf * (1 + Math.log(frequency)), Math::max));
+        });
+        return scores;
+    }
+
+    private Map<String, Map<String, Integer>> exactMatch(String token) {
+        Map<String, Integer> frequencies = postings.get(token);
+        return frequencies == null ? Map.of() : Map.of(token, frequencies);
+    }
+
+    private void add(Product product) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        tokenize(product.name()).forEach(term -> frequencies.merge(term, NAME_WEIGHT, Integer::sum));
+        tokenize(product.description()).forEach(term -> frequencies.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+        frequencies.forEach((term, frequency) ->
+                postings.computeIfAbsent(term, k -> new HashMap<>()).put(product.code(), frequency));
+        products.put(product.code(), product);
+        termsByCode.put(product.code(), frequencies.keySet());
+    }
+
+    private void removeFromIndex(String code) {
+        Set<String> terms = termsByCode.remove(code);
+        products.remove(code);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<String, Integer> frequencies = postings.get(term);
+            frequencies.remove(code);
+            if (frequencies.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+}
@@ -1,27 +1,55 @@
 package com.kiin.bookstore.catalog.domain;
 
+import jakarta.validation.Valid;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.UUID;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.annotation.Validated;
 
 @Service
 @Transactional
+@Validated
 public class ProductService {
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ProductRepository productRepository;
+    private final ProductCountCache productCountCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductEventService productEventService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    ProductService(ProductRepository productRepository) {
+    ProductService(
+            ProductRepository productRepository,
+            ProductCountCache productCountCache,
+            ProductSearchIndex productSearchIndex,
+            ProductEventService productEventService,
+            ApplicationEventPublisher eventPublisher) {
         this.productRepository = productRepository;
+        this.productCountCache = productCountCache;
+        this.productSearchIndex = productSearchIndex;
+        this.productEventService = productEventService;
+        this.eventPublisher = eventPublisher;
     }
 
     public PagedResult<Product> getProducts(int pageNo, int pageSize) {
         Sort sort = Sort.by("name").ascending();
         pageNo = pageNo <= 1 ? 0 : pageNo - 1;
         Pageable pageable = PageRequest.of(pageNo, pageSize, sort);
-        Page<Product> productsPage = productRepository.findAll(pageable).map(ProductMapper::toProduct);
+        List<Product> products = productRepository.findAllBy(pageable).stream()
+                .map(ProductMapper::toProduct)
+                .toList();
+        Page<Product> productsPage = PageableExecutionUtils.getPage(products, pageable, productCountCache::get);
 
         return new PagedResult<>(
                 productsPage.getContent(),
@@ -34,7 +62,81 @@ public class ProductService {
                 productsPage.hasPrevious());
     }
 
+    // Keyset pagination: seeks past the cursor on (name, id) and skips the count query
+    public CursorResult<Product> getProducts(String after, int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        List<ProductEntity> products;
+        if (after == null || after.isBlank()) {
+            products = productRepository.findFirstPageOrderByName(pageSize + 1);
+        } else {
+            ProductCursor cursor = ProductCursor.decode(after);
+            products = productRepository.findPageAfterOrderByName(cursor.name(), cursor.id(), pageSize + 1);
+        }
+        boolean hasNext = products.size() > pageSize;
+        if (hasNext) {
+            products = products.subList(0, pageSize);
+        }
+        String nextCursor = hasNext ? ProductCursor.of(products.getLast()).encode() : null;
+        return new CursorResult<>(
+                products.stream().map(ProductMapper::toProduct).toList(), nextCursor, hasNext);
+    }
+
+    // Served from the in-memory index, no query reaches Postgres
+    public List<Product> searchProducts(String query, int limit) {
+        return productSearchIndex.search(query, Math.clamp(limit, 1, MAX_PAGE_SIZE));
+    }
+
     public Optional<Product> getProductByCode(String code) {
         return productRepository.findByCode(code).map(ProductMapper::toProduct);
     }
+
+    public Optional<ProductVersion> getProductVersion(String code) {
+        return productRepository.findVersionByCode(code);
+    }
+
+    public List<Product> getProductsByCodes(Collection<String> codes) {
+        return productRepository.findByCodeIn(codes).stream()
+                .map(ProductMapper::toProduct)
+                .toList();
+    }
+
+    // Change events are written to the outbox in the same transaction as the update.
+    // There is no HTTP route for this yet, catalog-service has no authentication to put in front of it
+    public Product updateProduct(String code, @Valid UpdateProductRequest request) {
+        ProductEntity productEntity =
+                productRepository.findByCode(code).orElseThrow(() -> ProductNotFoundException.forCode(code));
+        Product before = ProductMapper.toProduct(productEntity);
+        productEntity.setName(request.name());
+        productEntity.setDescription(request.description());
+        productEntity.setImageUrl(request.imageUrl());
+        productEntity.setPrice(request.price());
+        Product product = ProductMapper.toProduct(productEntity);
+        boolean priceChanged = before.price().compareTo(product.price()) != 0;
+        boolean detailsChanged = !Objects.equals(before.name(), product.name())
+                || !Objects.equals(before.description(), product.description())
+                || !Objects.equals(before.imageUrl(), product.imageUrl());
+        if (!priceChanged && !detailsChanged) {
+            return before;
+        }
+        // Flush so the events carry the version that conditional GETs will report
+        productRepository.saveAndFlush(productEntity);
+        long version = productEntity.getVersion();
+        Instant now = Instant.now();
+        ProductUpdatedEvent updatedEvent = new ProductUpdatedEvent(
+                UUID.randomUUID().toString(),
+                code,
+                product.name(),
+                product.description(),
+                product.imageUrl(),
+                product.price(),
+                version,
+                now);
+        productEventService.save(updatedEvent);
+        if (priceChanged) {
+            productEventService.save(new ProductPriceChangedEvent(
+                    UUID.randomUUID().toString(), code, before.price(), product.price(), version, now));
+        }
+        eventPublisher.publishEvent(updatedEvent);
+        return product;
+    }
 }
@@ -0,0 +1,14 @@
+package com.kiin.bookstore.catalog.domain;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record ProductUpdatedEvent(
+        String eventId,
+        String code,
+        String name,
+        String description,
+        String imageUrl,
+        BigDecimal price,
+        long version,
+        Instant createdAt) {}
@@ -0,0 +1,5 @@
+package com.kiin.bookstore.catalog.domain;
+
+import java.time.Instant;
+
+public record ProductVersion(long version, Instant updatedAt) {}
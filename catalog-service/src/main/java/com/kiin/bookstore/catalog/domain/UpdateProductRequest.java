@@ -0,0 +1,13 @@
+package com.kiin.bookstore.catalog.domain;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.math.BigDecimal;
+
+public record UpdateProductRequest(
+        @NotBlank(message = "Product name is required") String name,
+        @Size(max = 1000) String description,
+        String imageUrl,
+        @NotNull(message = "Product price is required") @DecimalMin("0.1") BigDecimal price) {}
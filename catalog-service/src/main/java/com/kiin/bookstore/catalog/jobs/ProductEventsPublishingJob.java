@@ -0,0 +1,25 @@
+package com.kiin.bookstore.catalog.jobs;
+
+import com.kiin.bookstore.catalog.domain.ProductEventService;
+import java.time.Instant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+class ProductEventsPublishingJob {
+    private static final Logger log = LoggerFactory.getLogger(ProductEventsPublishingJob.class);
+
+    private final ProductEventService productEventService;
+
+    ProductEventsPublishingJob(ProductEventService productEventService) {
+        this.productEventService = productEventService;
+    }
+
+    @Scheduled(cron = "${catalog.publish-product-events-job-cron:*/5 * * * * *}")
+    public void publishProductEvents() {
+        log.debug("Publishing Product Events at {}", Instant.now());
+        productEventService.publishProductEvents();
+    }
+}
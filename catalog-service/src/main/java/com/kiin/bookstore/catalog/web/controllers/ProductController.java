@@ -1,42 +1,92 @@
 package com.kiin.bookstore.catalog.web.controllers;
 
+import com.kiin.bookstore.catalog.ApplicationProperties;
+import com.kiin.bookstore.catalog.domain.CursorResult;
 import com.kiin.bookstore.catalog.domain.PagedResult;
 import com.kiin.bookstore.catalog.domain.Product;
 import com.kiin.bookstore.catalog.domain.ProductNotFoundException;
 import com.kiin.bookstore.catalog.domain.ProductService;
+import com.kiin.bookstore.catalog.domain.ProductVersion;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/products")
 class ProductController {
     private static final Logger log = LoggerFactory.getLogger(ProductController.class);
+    // order-service splits its lookups to match, see ProductServiceClient.MAX_BATCH_SIZE
+    static final int MAX_BATCH_SIZE = 100;
+
     private final ProductService productService;
+    private final CacheControl cacheControl;
 
-    ProductController(ProductService productService) {
+    ProductController(ProductService productService, ApplicationProperties properties) {
         this.productService = productService;
+        this.cacheControl = CacheControl.maxAge(properties.httpCacheMaxAge()).cachePublic();
     }
 
+    // Listing ETags are computed from the response body by the ShallowEtagHeaderFilter registered in WebMvcConfig
     @GetMapping
-    PagedResult<Product> getProducts(
+    ResponseEntity<PagedResult<Product>> getProducts(
             @RequestParam(name = "page", defaultValue = "1") int pageNo,
             @RequestParam(name = "pageSize", defaultValue = "10") int pageSize) {
         log.info("Fetching products for page: {}", pageNo);
-        return productService.getProducts(pageNo, pageSize);
+        return ResponseEntity.ok().cacheControl(cacheControl).body(productService.getProducts(pageNo, pageSize));
+    }
+
+    // Cursor mode is selected by the limit parameter, pass nextCursor back as after to get the next page
+    @GetMapping(params = "limit")
+    ResponseEntity<CursorResult<Product>> getProducts(
+            @RequestParam(name = "after", required = false) String after, @RequestParam(name = "limit") int limit) {
+        log.info("Fetching {} products after cursor: {}", limit, after);
+        return ResponseEntity.ok().cacheControl(cacheControl).body(productService.getProducts(after, limit));
+    }
+
+    @GetMapping("/search")
+    ResponseEntity<List<Product>> searchProducts(
+            @RequestParam(name = "q") String query, @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        log.info("Searching products for query: {}", query);
+        return ResponseEntity.ok().cacheControl(cacheControl).body(productService.searchProducts(query, limit));
     }
 
     @GetMapping("/{code}")
-    ResponseEntity<Product> getProductByCode(@PathVariable String code) {
+    ResponseEntity<Product> getProductByCode(@PathVariable String code, WebRequest webRequest) {
         log.info("Fetching product for code: {}", code);
+        ProductVersion version =
+                productService.getProductVersion(code).orElseThrow(() -> ProductNotFoundException.forCode(code));
+        String eTag = "\"" + code + "-" + version.version() + "\"";
+        if (webRequest.checkNotModified(eTag, version.updatedAt().toEpochMilli())) {
+            // 304 Not Modified, the product itself is never loaded or serialized
+            return null;
+        }
         return productService
                 .getProductByCode(code)
-                .map(ResponseEntity::ok)
+                .map(product -> ResponseEntity.ok()
+                        .eTag(eTag)
+                        .lastModified(version.updatedAt())
+                        .cacheControl(cacheControl)
+                        .body(product))
                 .orElseThrow(() -> ProductNotFoundException.forCode(code));
     }
+
+    // Unknown codes are left out of the response, callers compare it against what they asked for
+    @PostMapping("/batch")
+    List<Product> getProductsByCodes(@RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE) Set<String> codes) {
+        log.info("Fetching products for {} codes", codes.size());
+        return productService.getProductsByCodes(codes);
+    }
 }
@@ -0,0 +1,2 @@
+-- Supports ordering by name and seeking on (name, id) for cursor based listing
+create index products_name_id_idx on products (name, id);
@@ -0,0 +1,6 @@
+alter table products
+    add column version    bigint      not null default 0,
+    add column updated_at timestamptz not null default now();
+
+-- Lets conditional GETs read the validators of a product with an index-only scan
+create index products_code_version_idx on products (code) include (version, updated_at);
@@ -0,0 +1,13 @@
+create sequence product_event_id_seq start with 1 increment by 50;
+
+-- Transactional outbox for catalog change events, relayed to RabbitMQ by ProductEventsPublishingJob
+create table product_events
+(
+    id           bigint default nextval('product_event_id_seq') not null,
+    product_code text                                           not null,
+    event_id     text                                           not null unique,
+    event_type   text                                           not null,
+    payload      text                                           not null,
+    created_at   timestamptz                                    not null,
+    primary key (id)
+);
@@ -8,7 +8,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.context.annotation.Import;
 
-@SpringBootTest(webEnvironment = RANDOM_PORT)
+// The outbox relay is triggered explicitly by the tests that need it
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = "catalog.publish-product-events-job-cron=-")
 @Import(ContainersConfig.class)
 public abstract class AbstractIT {
     @LocalServerPort
@@ -0,0 +1,50 @@
+package com.kiin.bookstore.catalog.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.kiin.bookstore.catalog.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class ProductCountCacheTest {
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldReuseCountUntilExpired() {
+        ProductCountCache productCountCache = newCache(Duration.ofMinutes(1));
+        given(productRepository.count()).willReturn(15L, 16L);
+
+        assertThat(productCountCache.get()).isEqualTo(15);
+        assertThat(productCountCache.get()).isEqualTo(15);
+
+        verify(productRepository, times(1)).count();
+        assertThat(meterRegistry
+                        .get("catalog.products.count.queries.avoided")
+                        .counter()
+                        .count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldRecountOnceExpired() {
+        ProductCountCache productCountCache = newCache(Duration.ZERO);
+        given(productRepository.count()).willReturn(15L, 16L);
+
+        assertThat(productCountCache.get()).isEqualTo(15);
+        assertThat(productCountCache.get()).isEqualTo(16);
+
+        verify(productRepository, times(2)).count();
+    }
+
+    private ProductCountCache newCache(Duration ttl) {
+        ApplicationProperties properties = mock(ApplicationProperties.class);
+        given(properties.productCountTtl()).willReturn(ttl);
+        return new ProductCountCache(productRepository, properties, meterRegistry);
+    }
+}
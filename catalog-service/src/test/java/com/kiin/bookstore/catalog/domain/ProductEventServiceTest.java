@@ -0,0 +1,92 @@
+package com.kiin.bookstore.catalog.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.kiin.bookstore.catalog.AbstractIT;
+import com.kiin.bookstore.catalog.ApplicationProperties;
+import jakarta.validation.ConstraintViolationException;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+@Sql("/test-data.sql")
+class ProductEventServiceTest extends AbstractIT {
+    @Autowired
+    ProductService productService;
+
+    @Autowired
+    ProductEventService productEventService;
+
+    @Autowired
+    RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    RabbitAdmin rabbitAdmin;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ApplicationProperties properties;
+
+    @Test
+    void shouldRecordEventsWithTheUpdateAndRelayThem() {
+        Queue queue = new AnonymousQueue();
+        rabbitAdmin.declareQueue(queue);
+        Binding binding = BindingBuilder.bind(queue)
+                .to(new TopicExchange(properties.catalogEventsExchange()))
+                .with("product.#");
+        rabbitAdmin.declareBinding(binding);
+
+        productService.updateProduct(
+                "P100", new UpdateProductRequest("The Hunger Games", null, null, new BigDecimal("29.5")));
+
+        assertThat(countProductEvents()).isEqualTo(2);
+
+        productEventService.publishProductEvents();
+
+        assertThat(countProductEvents()).isZero();
+        Message updated = rabbitTemplate.receive(queue.getName(), 5000);
+        Message priceChanged = rabbitTemplate.receive(queue.getName(), 5000);
+        assertThat(updated).isNotNull();
+        assertThat(updated.getMessageProperties().getReceivedRoutingKey()).isEqualTo("product.updated");
+        assertThat(priceChanged).isNotNull();
+        assertThat(priceChanged.getMessageProperties().getReceivedRoutingKey()).isEqualTo("product.price-changed");
+        assertThat(new String(priceChanged.getBody())).contains("\"code\":\"P100\"", "\"newPrice\":29.5");
+    }
+
+    @Test
+    void shouldNotRecordEventsWhenNothingChanged() {
+        Product product = productService.getProductByCode("P100").orElseThrow();
+
+        productService.updateProduct(
+                "P100",
+                new UpdateProductRequest(product.name(), product.description(), product.imageUrl(), product.price()));
+
+        assertThat(countProductEvents()).isZero();
+    }
+
+    @Test
+    void shouldRejectInvalidUpdates() {
+        assertThatThrownBy(() -> productService.updateProduct(
+                        "P100", new UpdateProductRequest("", null, null, new BigDecimal("0"))))
+                .isInstanceOf(ConstraintViolationException.class);
+
+        assertThat(countProductEvents()).isZero();
+    }
+
+    private Integer countProductEvents() {
+        return jdbcTemplate.queryForObject("select count(*) from product_events", Integer.class);
+    }
+}
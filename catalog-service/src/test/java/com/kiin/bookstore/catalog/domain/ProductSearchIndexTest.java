@@ -0,0 +1,84 @@
+package com.kiin.bookstore.catalog.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ProductSearchIndexTest {
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductSearchIndex productSearchIndex = new ProductSearchIndex(productRepository);
+
+    @BeforeEach
+    void setUp() {
+        given(productRepository.findAll())
+                .willReturn(List.of(
+                        product(1L, "P100", "The Hunger Games", "Winning will make you famous."),
+                        product(2L, "P111", "A Game of Thrones", "The first volume of the cycle."),
+                        product(3L, "P107", "The Alchemist", "A story about a shepherd and the games he plays.")));
+        productSearchIndex.rebuild();
+    }
+
+    @Test
+    void shouldRankNameMatchesBeforeDescriptionMatches() {
+        List<Product> products = productSearchIndex.search("games", 10);
+
+        assertThat(products).extracting(Product::code).containsExactly("P100", "P107");
+    }
+
+    @Test
+    void shouldMatchPrefixesAndIgnoreCaseAndAccents() {
+        List<Product> products = productSearchIndex.search("HÜNG gam", 10);
+
+        assertThat(products).extracting(Product::code).containsExactly("P100");
+    }
+
+    @Test
+    void shouldRequireEveryToken() {
+        assertThat(productSearchIndex.search("hunger thrones", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldApplyIncrementalUpdates() {
+        productSearchIndex.index(new Product("P100", "Catching Fire", "The second book.", null, BigDecimal.TEN), 1);
+        productSearchIndex.index(
+                new Product("P200", "Mockingjay", "The final Hunger Games book.", null, BigDecimal.TEN), 0);
+
+        assertThat(productSearchIndex.search("hunger", 10))
+                .extracting(Product::code)
+                .containsExactly("P200");
+    }
+
+    @Test
+    void shouldIgnoreUpdatesOlderThanTheIndexedVersion() {
+        productSearchIndex.index(new Product("P100", "Catching Fire", "The second book.", null, BigDecimal.TEN), 2);
+        productSearchIndex.index(new Product("P100", "The Hunger Games", null, null, BigDecimal.TEN), 1);
+
+        assertThat(productSearchIndex.search("hunger", 10)).isEmpty();
+        assertThat(productSearchIndex.search("catching", 10))
+                .extracting(Product::code)
+                .containsExactly("P100");
+    }
+
+    @Test
+    void shouldKeepNewerUpdatesWhenRebuildingFromAnOlderSnapshot() {
+        productSearchIndex.index(new Product("P100", "Catching Fire", "The second book.", null, BigDecimal.TEN), 3);
+
+        productSearchIndex.rebuild();
+
+        assertThat(productSearchIndex.search("catching", 10))
+                .extracting(Product::code)
+                .containsExactly("P100");
+        assertThat(productSearchIndex.search("thrones", 10))
+                .extracting(Product::code)
+                .containsExactly("P111");
+    }
+
+    private static ProductEntity product(Long id, String code, String name, String description) {
+        return new ProductEntity(id, code, name, description, null, BigDecimal.TEN);
+    }
+}
@@ -2,19 +2,29 @@ package com.kiin.bookstore.catalog.web.controllers;
 
 import static io.restassured.RestAssured.given;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 
 import com.kiin.bookstore.catalog.AbstractIT;
 import com.kiin.bookstore.catalog.domain.Product;
+import com.kiin.bookstore.catalog.domain.ProductService;
+import com.kiin.bookstore.catalog.domain.UpdateProductRequest;
 import io.restassured.http.ContentType;
 import java.math.BigDecimal;
+import java.util.List;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.jdbc.Sql;
 
 @Sql("/test-data.sql")
 class ProductControllerTest extends AbstractIT {
 
+    @Autowired
+    ProductService productService;
+
     @Test
     void shouldReturnProducts() {
         given().contentType(ContentType.JSON)
@@ -32,6 +42,38 @@ class ProductControllerTest extends AbstractIT {
                 .body("hasPrevious", is(false));
     }
 
+    @Test
+    void shouldScrollProductsWithCursor() {
+        String nextCursor = given().contentType(ContentType.JSON)
+                .when()
+                .get("/api/products?limit={limit}", 10)
+                .then()
+                .statusCode(200)
+                .body("data", hasSize(10))
+                .body("hasNext", is(true))
+                .extract()
+                .path("nextCursor");
+
+        given().contentType(ContentType.JSON)
+                .when()
+                .get("/api/products?limit={limit}&after={after}", 10, nextCursor)
+                .then()
+                .statusCode(200)
+                .body("data", hasSize(5))
+                .body("hasNext", is(false))
+                .body("nextCursor", nullValue());
+    }
+
+    @Test
+    void shouldReturnBadRequestWhenCursorIsInvalid() {
+        given().contentType(ContentType.JSON)
+                .when()
+                .get("/api/products?limit={limit}&after={after}", 10, "not-a-cursor")
+                .then()
+                .statusCode(400)
+                .body("title", is("Invalid Cursor"));
+    }
+
     @Test
     void shouldGetProductByCode() {
         Product product = given().contentType(ContentType.JSON)
@@ -50,6 +92,92 @@ class ProductControllerTest extends AbstractIT {
         assertThat(product.price()).isEqualTo(new BigDecimal("34.0"));
     }
 
+    @Test
+    void shouldGetProductsByCodes() {
+        given().contentType(ContentType.JSON)
+                .body(List.of("P100", "P101", "invalid_product_code"))
+                .when()
+                .post("/api/products/batch")
+                .then()
+                .statusCode(200)
+                .body("size()", is(2))
+                .body("code", containsInAnyOrder("P100", "P101"));
+    }
+
+    @Test
+    void shouldSearchProducts() {
+        given().contentType(ContentType.JSON)
+                .when()
+                .get("/api/products/search?q={q}", "hunger gam")
+                .then()
+                .statusCode(200)
+                .body("size()", is(1))
+                .body("[0].code", is("P100"));
+    }
+
+    @Test
+    void shouldReturnNotModifiedWhenProductETagMatches() {
+        String eTag = given().contentType(ContentType.JSON)
+                .when()
+                .get("/api/products/{code}", "P100")
+                .then()
+                .statusCode(200)
+                .header("Cache-Control", notNullValue())
+                .extract()
+                .header("ETag");
+
+        given().contentType(ContentType.JSON)
+                .header("If-None-Match", eTag)
+                .when()
+                .get("/api/products/{code}", "P100")
+                .then()
+                .statusCode(304);
+    }
+
+    @Test
+    void shouldChangeETagWhenProductIsUpdated() {
+        String eTag = given().when()
+                .get("/api/products/{code}", "P100")
+                .then()
+                .statusCode(200)
+                .extract()
+                .header("ETag");
+
+        productService.updateProduct(
+                "P100",
+                new UpdateProductRequest("The Hunger Games", "Updated description", null, new BigDecimal("29.5")));
+
+        given().header("If-None-Match", eTag)
+                .when()
+                .get("/api/products/{code}", "P100")
+                .then()
+                .statusCode(200)
+                .body("description", is("Updated description"))
+                .body("price", is(29.5f));
+    }
+
+    @Test
+    void shouldNotExposeProductUpdates() {
+        given().contentType(ContentType.JSON)
+                .body(
+                        """
+                        {
+                            "name": "The Hunger Games",
+                            "price": 0.5
+                        }
+                        """)
+                .when()
+                .put("/api/products/{code}", "P100")
+                .then()
+                .statusCode(405);
+
+        given().when()
+                .get("/api/products/{code}", "P100")
+                .then()
+                .statusCode(200)
+                .body("price", is(34.0f));
+    }
+
     @Test
     void shouldReturnNotFoundWhenProductCodeNotExists() {
         String code = "invalid_product_code";
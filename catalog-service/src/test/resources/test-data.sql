@@ -1,4 +1,5 @@
 truncate table products;
+truncate table product_events;
 
 insert into products(code, name, description, image_url, price) values
 ('P100','The Hunger Games','Winning will make you famous. Losing means certain death...','https://images.gr-assets.com/books/1447303603l/2767052.jpg', 34.0),
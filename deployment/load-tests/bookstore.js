@@ -0,0 +1,78 @@
+// Load test for the catalog and order read paths and for order creation.
+// Run it once with VIRTUAL_THREADS=false and once with VIRTUAL_THREADS=true (see `task load-test`)
+// and compare the p(99) latency and request rate of each request name printed in the summary.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const CATALOG_URL = __ENV.CATALOG_URL || 'http://localhost:8081';
+const ORDER_URL = __ENV.ORDER_URL || 'http://localhost:8082';
+const KEYCLOAK_URL = __ENV.KEYCLOAK_URL || 'http://localhost:9191';
+const REALM = __ENV.KEYCLOAK_REALM || 'bookstore';
+const CLIENT_ID = __ENV.KEYCLOAK_CLIENT_ID || 'bookstore-webapp-id';
+const USERNAME = __ENV.USERNAME || 'khoa';
+const PASSWORD = __ENV.PASSWORD || '123';
+
+export const options = {
+    scenarios: {
+        browse: {
+            executor: 'constant-vus',
+            vus: Number(__ENV.VUS || 200),
+            duration: __ENV.DURATION || '1m',
+        },
+        // POST /api/orders validates every item against catalog-service and writes the order and its outbox event
+        checkout: {
+            executor: 'constant-vus',
+            exec: 'placeOrder',
+            vus: Number(__ENV.ORDER_VUS || 20),
+            duration: __ENV.DURATION || '1m',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function setup() {
+    const res = http.post(`${KEYCLOAK_URL}/realms/${REALM}/protocol/openid-connect/token`, {
+        grant_type: 'password',
+        client_id: CLIENT_ID,
+        username: USERNAME,
+        password: PASSWORD,
+    });
+    check(res, { 'token issued': (r) => r.status === 200 });
+    // The order must carry the current catalog price, otherwise it is rejected
+    const product = http.get(`${CATALOG_URL}/api/products/P100`);
+    check(product, { 'product 200': (r) => r.status === 200 });
+    return { token: res.json('access_token'), product: product.json() };
+}
+
+export default function (data) {
+    const products = http.get(`${CATALOG_URL}/api/products?page=${1 + Math.floor(Math.random() * 3)}`, {
+        tags: { name: 'catalog /api/products' },
+    });
+    check(products, { 'products 200': (r) => r.status === 200 });
+
+    const orders = http.get(`${ORDER_URL}/api/orders?limit=20`, {
+        headers: { Authorization: `Bearer ${data.token}` },
+        tags: { name: 'orders /api/orders' },
+    });
+    check(orders, { 'orders 200': (r) => r.status === 200 });
+}
+
+export function placeOrder(data) {
+    const order = {
+        items: [{ code: data.product.code, name: data.product.name, price: data.product.price, quantity: 1 }],
+        customer: { name: 'Load Test', email: 'loadtest@example.com', phone: '0123456789' },
+        deliveryAddress: {
+            addressLine1: '1 Test Street',
+            addressLine2: '',
+            city: 'Hanoi',
+            state: 'Hanoi',
+            zipCode: '100000',
+            country: 'Vietnam',
+        },
+    };
+    const res = http.post(`${ORDER_URL}/api/orders`, JSON.stringify(order), {
+        headers: { Authorization: `Bearer ${data.token}`, 'Content-Type': 'application/json' },
+        tags: { name: 'orders POST /api/orders' },
+    });
+    check(res, { 'order 201': (r) => r.status === 201 });
+}
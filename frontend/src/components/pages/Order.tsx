@@ -4,23 +4,26 @@ import type { OrderSummary, OrderStatus } from "../../types";
 import { OrderService } from "../../services/domain/OrderService";
 
 const orderService = new OrderService();
+const PAGE_SIZE = 20;
 
 export const OrderPage: React.FC = () => {
     const navigate = useNavigate();
     const [orders, setOrders] = useState<OrderSummary[]>([]);
-    const [filteredOrders, setFilteredOrders] = useState<OrderSummary[]>([]);
+    const [nextCursor, setNextCursor] = useState<string | null>(null);
     const [loading, setLoading] = useState<boolean>(true);
+    const [loadingMore, setLoadingMore] = useState<boolean>(false);
     const [error, setError] = useState<string | null>(null);
     const [statusFilter, setStatusFilter] = useState<OrderStatus | 'ALL'>('ALL');
 
-    const loadOrders = async () => {
+    // The status filter is applied by the server, so changing it starts again from the first page
+    const loadOrders = async (status: OrderStatus | 'ALL') => {
         setLoading(true);
         setError(null);
 
         try {
-            const fetchedOrders = await orderService.getAllOrders();
-            setOrders(fetchedOrders);
-            applyFilter(fetchedOrders, statusFilter);
+            const page = await orderService.scrollOrders(PAGE_SIZE, null, status === 'ALL' ? undefined : status);
+            setOrders(page.data);
+            setNextCursor(page.hasNext ? page.nextCursor : null);
         } catch (err) {
             console.error('Failed to load orders:', err);
             setError('Failed to load your orders. Please try again later.');
@@ -29,25 +32,36 @@ export const OrderPage: React.FC = () => {
         }
     };
 
-    const applyFilter = (ordersList: OrderSummary[], status: OrderStatus | 'ALL') => {
-        if (status === 'ALL') {
-            setFilteredOrders(ordersList);
-        } else {
-            setFilteredOrders(ordersList.filter(order => order.status === status));
+    const loadMoreOrders = async () => {
+        if (!nextCursor) {
+            return;
+        }
+        setLoadingMore(true);
+        setError(null);
+
+        try {
+            const page = await orderService.scrollOrders(PAGE_SIZE, nextCursor, statusFilter === 'ALL' ? undefined : statusFilter);
+            setOrders(previous => [...previous, ...page.data]);
+            setNextCursor(page.hasNext ? page.nextCursor : null);
+        } catch (err) {
+            console.error('Failed to load more orders:', err);
+            setError('Failed to load more orders. Please try again later.');
+        } finally {
+            setLoadingMore(false);
         }
     };
 
     const handleFilterChange = (status: OrderStatus | 'ALL') => {
         setStatusFilter(status);
-        applyFilter(orders, status);
+        loadOrders(status);
     };
 
     const handleRefresh = () => {
-        loadOrders();
+        loadOrders(statusFilter);
     };
 
     useEffect(() => {
-        loadOrders();
+        loadOrders('ALL');
     }, []);
 
     const getStatusBadgeClass = (status: OrderStatus) => {
@@ -120,9 +134,9 @@ export const OrderPage: React.FC = () => {
                 <div className="bg-red-100 text-red-700 p-4 rounded-md mb-4">
                     {error}
                 </div>
-            ) : filteredOrders.length === 0 ? (
+            ) : orders.length === 0 ? (
                 <div className="text-center py-8">
-                    {orders.length === 0 ? (
+                    {statusFilter === 'ALL' ? (
                         <>
                             <p className="text-gray-600 mb-4">You don't have any orders yet</p>
                             <Link
@@ -161,7 +175,7 @@ export const OrderPage: React.FC = () => {
                             </tr>
                         </thead>
                         <tbody className="bg-white divide-y divide-gray-200">
-                            {filteredOrders.map((order) => (
+                            {orders.map((order) => (
                                 <tr key={order.orderNumber} className="hover:bg-gray-50">
                                     <td className="px-6 py-4 whitespace-nowrap">
                                         <div className="font-medium text-gray-900">{order.orderNumber}</div>
@@ -183,6 +197,17 @@ export const OrderPage: React.FC = () => {
                             ))}
                         </tbody>
                     </table>
+                    {nextCursor && (
+                        <div className="p-4 text-center border-t border-gray-200">
+                            <button
+                                onClick={loadMoreOrders}
+                                disabled={loadingMore}
+                                className="px-4 py-2 bg-gray-100 hover:bg-gray-200 text-black rounded-md text-sm disabled:opacity-50"
+                            >
+                                {loadingMore ? 'Loading...' : 'Load more'}
+                            </button>
+                        </div>
+                    )}
                 </div>
             )}
         </div>
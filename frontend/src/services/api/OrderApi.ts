@@ -1,6 +1,6 @@
 import { ApiClient } from './ApiClient';
 import { API_ENDPOINTS } from '../constants';
-import type { OrderRequest, OrderResponse, OrderDetails, OrderSummary } from '../../types';
+import type { CursorResponse, OrderRequest, OrderResponse, OrderDetails, OrderStatus, OrderSummary } from '../../types';
 
 export class OrderApi {
     private apiClient: ApiClient;
@@ -13,8 +13,10 @@ export class OrderApi {
         return this.apiClient.post('/orders', orderData, token);
     }
 
-    async getAllOrders(token?: string): Promise<OrderSummary[]> {
-        return this.apiClient.get('/orders', token);
+    async scrollOrders(limit: number, after?: string | null, status?: OrderStatus, token?: string): Promise<CursorResponse<OrderSummary>> {
+        const cursor = after ? `&after=${encodeURIComponent(after)}` : '';
+        const filter = status ? `&status=${status}` : '';
+        return this.apiClient.get(`/orders?limit=${limit}${cursor}${filter}`, token);
     }
 
     async getOrderById(orderId: string, token?: string): Promise<OrderDetails> {
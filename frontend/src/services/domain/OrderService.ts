@@ -1,4 +1,4 @@
-import type { OrderDetails, OrderRequest, OrderSummary } from "../../types";
+import type { CursorResponse, OrderDetails, OrderRequest, OrderStatus, OrderSummary } from "../../types";
 import { UserService } from "./UserService";
 import { OrderApi } from "../api/OrderApi";
 import { CartService } from "./CartService";
@@ -33,14 +33,14 @@ export class OrderService {
         }
     }
 
-    public async getAllOrders(): Promise<OrderSummary[]> {
+    public async scrollOrders(limit: number, after?: string | null, status?: OrderStatus): Promise<CursorResponse<OrderSummary>> {
         try {
             if (!UserService.isLoggedIn()) {
                 throw new Error('User must be logged in to see orders');
             }
 
             const token = UserService.getToken();
-            const response = await this.orderApi.getAllOrders(token);
+            const response = await this.orderApi.scrollOrders(limit, after, status, token);
             return response;
         } catch (error) {
             console.error('Order service error:', error);
@@ -11,6 +11,12 @@ export interface ApiResponse<T = Product> {
     hasPrevious: boolean;
 }
 
+export interface CursorResponse<T = Product> {
+    data: T[];
+    nextCursor: string | null;
+    hasNext: boolean;
+}
+
 export interface ApiError {
     message: string;
     status: number;
@@ -1,7 +1,14 @@
 package com.kiin.bookstore.notifications;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import java.time.Duration;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
 
+@Validated
 @ConfigurationProperties(prefix = "notifications")
 public record ApplicationProperties(
         String supportEmail,
@@ -9,4 +16,27 @@ public record ApplicationProperties(
         String newOrdersQueue,
         String deliveredOrdersQueue,
         String cancelledOrdersQueue,
-        String errorOrdersQueue) {}
+        String errorOrdersQueue,
+        @DefaultValue @Valid ListenerProperties newOrdersListener,
+        @DefaultValue @Valid ListenerProperties deliveredOrdersListener,
+        @DefaultValue @Valid ListenerProperties cancelledOrdersListener,
+        @DefaultValue @Valid ListenerProperties errorOrdersListener,
+        @DefaultValue("1s") Duration listenerBatchTimeout,
+        @DefaultValue("100000") @Min(1) long recentEventIdsMaximumSize,
+        @DefaultValue("1h") Duration recentEventIdsTtl,
+        @DefaultValue("500") @Min(1) int mailQueueCapacity,
+        @DefaultValue("4") @Min(1) int mailConnections,
+        @DefaultValue("20") @Min(1) int mailBatchSize,
+        @DefaultValue("10") @Min(1) int mailRatePerDomain,
+        @DefaultValue("3") @Min(1) int mailMaxAttempts,
+        @DefaultValue("1s") Duration mailRetryBackoff,
+        @DefaultValue({"5s", "30s", "5m"}) List<Duration> retryDelays) {
+
+    // Consumers start at concurrentConsumers and are added up to maxConsumers while the queue stays busy
+    public record ListenerProperties(
+            @DefaultValue("1") @Min(1) int concurrentConsumers,
+            @DefaultValue("4") @Min(1) int maxConsumers,
+            @DefaultValue("250") @Min(1) int prefetch,
+            @DefaultValue("50") @Min(1) int batchSize,
+            @DefaultValue("false") boolean virtualThreads) {}
+}
@@ -2,12 +2,19 @@ package com.kiin.bookstore.notifications.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.kiin.bookstore.notifications.ApplicationProperties;
+import com.kiin.bookstore.notifications.events.RetryTopology;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 
 @Configuration
 class RabbitMQConfig {
@@ -24,7 +31,7 @@ class RabbitMQConfig {
 
     @Bean
     Queue newOrdersQueue() {
-        return QueueBuilder.durable(properties.newOrdersQueue()).build();
+        return orderEventsQueue(properties.newOrdersQueue());
     }
 
     @Bean
@@ -34,7 +41,7 @@ class RabbitMQConfig {
 
     @Bean
     Queue deliveredOrdersQueue() {
-        return QueueBuilder.durable(properties.deliveredOrdersQueue()).build();
+        return orderEventsQueue(properties.deliveredOrdersQueue());
     }
 
     @Bean
@@ -44,7 +51,7 @@ class RabbitMQConfig {
 
     @Bean
     Queue cancelledOrdersQueue() {
-        return QueueBuilder.durable(properties.cancelledOrdersQueue()).build();
+        return orderEventsQueue(properties.cancelledOrdersQueue());
     }
 
     @Bean
@@ -54,7 +61,7 @@ class RabbitMQConfig {
 
     @Bean
     Queue errorOrdersQueue() {
-        return QueueBuilder.durable(properties.errorOrdersQueue()).build();
+        return orderEventsQueue(properties.errorOrdersQueue());
     }
 
     @Bean
@@ -62,6 +69,96 @@ class RabbitMQConfig {
         return BindingBuilder.bind(errorOrdersQueue()).to(exchange()).with(properties.errorOrdersQueue());
     }
 
+    @Bean
+    DirectExchange deadLetterExchange() {
+        return new DirectExchange(RetryTopology.deadLetterExchange(properties.orderEventsExchange()));
+    }
+
+    // A retry queue per delay that dead-letters back to the queue once the TTL expires,
+    // and a parking lot bound to the dead-letter exchange for messages that ran out of retries
+    @Bean
+    Declarables retryTopology() {
+        List<Declarable> declarables = new ArrayList<>();
+        for (String queue : List.of(
+                properties.newOrdersQueue(),
+                properties.deliveredOrdersQueue(),
+                properties.cancelledOrdersQueue(),
+                properties.errorOrdersQueue())) {
+            for (Duration delay : properties.retryDelays()) {
+                declarables.add(QueueBuilder.durable(RetryTopology.retryQueue(queue, delay))
+                        .ttl((int) delay.toMillis())
+                        .deadLetterExchange(properties.orderEventsExchange())
+                        .deadLetterRoutingKey(queue)
+                        .build());
+            }
+            Queue parkingLot =
+                    QueueBuilder.durable(RetryTopology.parkingLotQueue(queue)).build();
+            declarables.add(parkingLot);
+            declarables.add(
+                    BindingBuilder.bind(parkingLot).to(deadLetterExchange()).with(queue));
+        }
+        return new Declarables(declarables);
+    }
+
+    @Bean
+    SimpleRabbitListenerContainerFactory newOrdersListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        return listenerContainerFactory(configurer, connectionFactory, "new-orders", properties.newOrdersListener());
+    }
+
+    @Bean
+    SimpleRabbitListenerContainerFactory deliveredOrdersListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        return listenerContainerFactory(
+                configurer, connectionFactory, "delivered-orders", properties.deliveredOrdersListener());
+    }
+
+    @Bean
+    SimpleRabbitListenerContainerFactory cancelledOrdersListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        return listenerContainerFactory(
+                configurer, connectionFactory, "cancelled-orders", properties.cancelledOrdersListener());
+    }
+
+    @Bean
+    SimpleRabbitListenerContainerFactory errorOrdersListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        return listenerContainerFactory(
+                configurer, connectionFactory, "error-orders", properties.errorOrdersListener());
+    }
+
+    // Batch listener that delivers up to batchSize messages per call, or what arrived within listenerBatchTimeout
+    private SimpleRabbitListenerContainerFactory listenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            String name,
+            ApplicationProperties.ListenerProperties listener) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setConcurrentConsumers(listener.concurrentConsumers());
+        factory.setMaxConcurrentConsumers(Math.max(listener.concurrentConsumers(), listener.maxConsumers()));
+        // A consumer batch can only fill up if the broker sends at least that many unacked messages
+        factory.setPrefetchCount(Math.max(listener.prefetch(), listener.batchSize()));
+        // OrderEventHandler moves failed events through the retry queues itself. A batch is only rejected when
+        // that fails too, or when it can't be converted, and is then dead-lettered instead of requeued in a hot loop
+        factory.setDefaultRequeueRejected(false);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(listener.batchSize());
+        factory.setReceiveTimeout(properties.listenerBatchTimeout().toMillis());
+        if (listener.virtualThreads()) {
+            factory.setTaskExecutor(new VirtualThreadTaskExecutor(name + "-listener-"));
+        }
+        return factory;
+    }
+
+    // Rejected messages keep their routing key, so the dead-letter exchange routes them to the parking lot
+    private Queue orderEventsQueue(String name) {
+        return QueueBuilder.durable(name)
+                .deadLetterExchange(RetryTopology.deadLetterExchange(properties.orderEventsExchange()))
+                .build();
+    }
+
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, ObjectMapper objectMapper) {
         final var rabbitTemplate = new RabbitTemplate(connectionFactory);
@@ -0,0 +1,252 @@
+package com.kiin.bookstore.notifications.domain;
+
+import com.kiin.bookstore.notifications.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+// Delivers emails off the listener threads. Each worker owns one SMTP connection per batch, since
+// JavaMailSender.send(MimeMessage...) reuses a single transport for all messages it is given.
+// submit blocks when the queue is full, which holds the listener and so the unacked prefetch.
+@Component
+public class MailDeliveryPipeline {
+    private static final Logger log = LoggerFactory.getLogger(MailDeliveryPipeline.class);
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(1);
+
+    private final JavaMailSender emailSender;
+    private final BlockingQueue<PendingEmail> queue;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService retryScheduler;
+    private final Map<String, DomainThrottle> throttles = new ConcurrentHashMap<>();
+    private final Set<PendingEmail> scheduledRetries = ConcurrentHashMap.newKeySet();
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final long permitIntervalNanos;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private volatile boolean running = true;
+
+    MailDeliveryPipeline(JavaMailSender emailSender, ApplicationProperties properties, MeterRegistry meterRegistry) {
+        this.emailSender = emailSender;
+        this.queue = new ArrayBlockingQueue<>(properties.mailQueueCapacity());
+        this.batchSize = properties.mailBatchSize();
+        this.maxAttempts = properties.mailMaxAttempts();
+        this.retryBackoff = properties.mailRetryBackoff();
+        this.permitIntervalNanos = TimeUnit.SECONDS.toNanos(1) / properties.mailRatePerDomain();
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor();
+        this.workers = Executors.newFixedThreadPool(properties.mailConnections());
+        for (int i = 0; i < properties.mailConnections(); i++) {
+            workers.execute(this::deliverLoop);
+        }
+        Gauge.builder("notifications.mail.queue.size", queue, BlockingQueue::size)
+                .description("Emails waiting for an SMTP connection")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("notifications.mail.sent").register(meterRegistry);
+        this.failedCounter = Counter.builder("notifications.mail.failed").register(meterRegistry);
+    }
+
+    public CompletableFuture<Void> submit(MimeMessage message, String recipient) {
+        PendingEmail email = new PendingEmail(message, domainOf(recipient), new CompletableFuture<>());
+        try {
+            queue.put(email);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            email.result().completeExceptionally(e);
+        }
+        return email.result();
+    }
+
+    // Every email still waiting, queued or scheduled for a retry, is failed so the listener can hand its event
+    // to the retry queues instead of waiting forever
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        retryScheduler.shutdownNow();
+        this.failAll(scheduledRetries);
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+        List<PendingEmail> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        this.failAll(remaining);
+    }
+
+    private void failAll(Collection<PendingEmail> emails) {
+        for (PendingEmail email : List.copyOf(emails)) {
+            emails.remove(email);
+            email.result().completeExceptionally(new IllegalStateException("Mail delivery stopped"));
+        }
+    }
+
+    private void deliverLoop() {
+        List<PendingEmail> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingEmail first = queue.poll(POLL_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                Map<String, List<PendingEmail>> byDomain = new LinkedHashMap<>();
+                batch.forEach(email -> byDomain.computeIfAbsent(email.domain(), d -> new ArrayList<>())
+                        .add(email));
+                // A domain that is rate limited or backing off is put aside, so it doesn't hold up the others
+                for (Map.Entry<String, List<PendingEmail>> entry : byDomain.entrySet()) {
+                    long waitNanos =
+                            throttle(entry.getKey()).tryAcquire(entry.getValue().size());
+                    if (waitNanos > 0) {
+                        entry.getValue().forEach(email -> schedule(email, Duration.ofNanos(waitNanos)));
+                    } else {
+                        deliver(entry.getKey(), entry.getValue());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void deliver(String domain, List<PendingEmail> emails) {
+        Set<Object> failed;
+        RuntimeException error = null;
+        try {
+            emailSender.send(emails.stream().map(PendingEmail::message).toArray(MimeMessage[]::new));
+            failed = Set.of();
+        } catch (MailException e) {
+            error = e;
+            // Without per-message failures the connection itself failed, so the whole batch is retried
+            failed = e instanceof MailSendException sendException
+                            && !sendException.getFailedMessages().isEmpty()
+                    ? sendException.getFailedMessages().keySet()
+                    : Set.copyOf(emails.stream().map(PendingEmail::message).toList());
+        } catch (RuntimeException e) {
+            // Anything else, e.g. a message that can't be written, must not kill the worker and leave
+            // the listener waiting on these results forever, so it is retried like a failed send
+            error = e;
+            failed = Set.copyOf(emails.stream().map(PendingEmail::message).toList());
+        }
+        DomainThrottle throttle = throttle(domain);
+        Duration backoff = Duration.ZERO;
+        if (failed.isEmpty()) {
+            throttle.recordSuccess();
+        } else {
+            log.warn("Failed to send {} of {} emails to domain: {}", failed.size(), emails.size(), domain, error);
+            backoff = throttle.recordFailure();
+        }
+        for (PendingEmail email : emails) {
+            if (!failed.contains(email.message())) {
+                sentCounter.increment();
+                email.result().complete(null);
+            } else if (email.attempt() < maxAttempts) {
+                schedule(email.nextAttempt(), backoff);
+            } else {
+                failedCounter.increment();
+                email.result().completeExceptionally(error);
+            }
+        }
+    }
+
+    // Puts the email back on the queue once the delay has passed, used for retries and for throttled domains
+    private void schedule(PendingEmail email, Duration delay) {
+        scheduledRetries.add(email);
+        try {
+            retryScheduler.schedule(
+                    () -> {
+                        if (!scheduledRetries.remove(email)) {
+                            return;
+                        }
+                        try {
+                            queue.put(email);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            email.result().completeExceptionally(e);
+                        }
+                    },
+                    delay.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // A batch that was in flight during shutdown
+            scheduledRetries.remove(email);
+            email.result().completeExceptionally(new IllegalStateException("Mail delivery stopped"));
+        }
+    }
+
+    private DomainThrottle throttle(String domain) {
+        return throttles.computeIfAbsent(domain, d -> new DomainThrottle());
+    }
+
+    private static String domainOf(String recipient) {
+        int at = recipient.lastIndexOf('@');
+        return at < 0 ? "" : recipient.substring(at + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private record PendingEmail(MimeMessage message, String domain, CompletableFuture<Void> result, int attempt) {
+        PendingEmail(MimeMessage message, String domain, CompletableFuture<Void> result) {
+            this(message, domain, result, 1);
+        }
+
+        PendingEmail nextAttempt() {
+            return new PendingEmail(message, domain, result, attempt + 1);
+        }
+    }
+
+    // Spaces sends to one domain by the configured rate and backs off exponentially after failures
+    private class DomainThrottle {
+        private long nextPermitNanos = System.nanoTime();
+        private int consecutiveFailures;
+
+        // Takes the permits and returns 0 if the domain may be sent to now, otherwise how long to wait
+        synchronized long tryAcquire(int permits) {
+            long now = System.nanoTime();
+            if (nextPermitNanos > now) {
+                return nextPermitNanos - now;
+            }
+            nextPermitNanos = now + permits * permitIntervalNanos;
+            return 0;
+        }
+
+        synchronized void recordSuccess() {
+            consecutiveFailures = 0;
+        }
+
+        synchronized Duration recordFailure() {
+            consecutiveFailures++;
+            Duration backoff = retryBackoff.multipliedBy(1L << Math.min(consecutiveFailures - 1, 16));
+            if (backoff.compareTo(MAX_BACKOFF) > 0) {
+                backoff = MAX_BACKOFF;
+            }
+            nextPermitNanos = Math.max(nextPermitNanos, System.nanoTime() + backoff.toNanos());
+            return backoff;
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package com.kiin.bookstore.notifications.domain;
 
 import com.kiin.bookstore.notifications.ApplicationProperties;
+import com.kiin.bookstore.notifications.domain.NotificationTemplates.NotificationType;
+import com.kiin.bookstore.notifications.domain.NotificationTemplates.RenderedNotification;
 import com.kiin.bookstore.notifications.domain.models.OrderCancelledEvent;
 import com.kiin.bookstore.notifications.domain.models.OrderCreatedEvent;
 import com.kiin.bookstore.notifications.domain.models.OrderDeliveredEvent;
 import com.kiin.bookstore.notifications.domain.models.OrderErrorEvent;
 import jakarta.mail.internet.MimeMessage;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.mail.javamail.JavaMailSender;
@@ -18,98 +23,74 @@ public class NotificationService {
 
     private final JavaMailSender emailSender;
     private final ApplicationProperties properties;
+    private final MailDeliveryPipeline mailDeliveryPipeline;
+    private final NotificationTemplates templates;
 
-    public NotificationService(JavaMailSender emailSender, ApplicationProperties properties) {
+    public NotificationService(
+            JavaMailSender emailSender,
+            ApplicationProperties properties,
+            MailDeliveryPipeline mailDeliveryPipeline,
+            NotificationTemplates templates) {
         this.emailSender = emailSender;
         this.properties = properties;
+        this.mailDeliveryPipeline = mailDeliveryPipeline;
+        this.templates = templates;
     }
 
-    public void sendOrderCreatedNotification(OrderCreatedEvent event) {
-        String message =
-                """
-                ===================================================
-                Order Created Notification
-                ----------------------------------------------------
-                Dear %s,
-                Your order with orderNumber: %s has been created successfully.
-
-                Thanks,
-                BookStore Team
-                ===================================================
-                """
-                        .formatted(event.customer().name(), event.orderNumber());
-        log.info("\n{}", message);
-        sendEmail(event.customer().email(), "Order Created Notification", message);
+    public CompletableFuture<Void> sendOrderCreatedNotification(OrderCreatedEvent event) {
+        return sendEmail(
+                event.customer().email(),
+                event.orderNumber(),
+                NotificationType.ORDER_CREATED,
+                Map.of("customerName", event.customer().name(), "orderNumber", event.orderNumber()));
     }
 
-    public void sendOrderDeliveredNotification(OrderDeliveredEvent event) {
-        String message =
-                """
-                ===================================================
-                Order Delivered Notification
-                ----------------------------------------------------
-                Dear %s,
-                Your order with orderNumber: %s has been delivered successfully.
-
-                Thanks,
-                BookStore Team
-                ===================================================
-                """
-                        .formatted(event.customer().name(), event.orderNumber());
-        log.info("\n{}", message);
-        sendEmail(event.customer().email(), "Order Delivered Notification", message);
+    public CompletableFuture<Void> sendOrderDeliveredNotification(OrderDeliveredEvent event) {
+        return sendEmail(
+                event.customer().email(),
+                event.orderNumber(),
+                NotificationType.ORDER_DELIVERED,
+                Map.of("customerName", event.customer().name(), "orderNumber", event.orderNumber()));
     }
 
-    public void sendOrderCancelledNotification(OrderCancelledEvent event) {
-        String message =
-                """
-                ===================================================
-                Order Cancelled Notification
-                ----------------------------------------------------
-                Dear %s,
-                Your order with orderNumber: %s has been cancelled.
-                Reason: %s
-
-                Thanks,
-                BookStore Team
-                ===================================================
-                """
-                        .formatted(event.customer().name(), event.orderNumber(), event.reason());
-        log.info("\n{}", message);
-        sendEmail(event.customer().email(), "Order Cancelled Notification", message);
+    public CompletableFuture<Void> sendOrderCancelledNotification(OrderCancelledEvent event) {
+        return sendEmail(
+                event.customer().email(),
+                event.orderNumber(),
+                NotificationType.ORDER_CANCELLED,
+                Map.of(
+                        "customerName", event.customer().name(),
+                        "orderNumber", event.orderNumber(),
+                        "reason", Objects.requireNonNullElse(event.reason(), "")));
     }
 
-    public void sendOrderErrorEventNotification(OrderErrorEvent event) {
-        String message =
-                """
-                ===================================================
-                Order Processing Failure Notification
-                ----------------------------------------------------
-                Hi %s,
-                The order processing failed for orderNumber: %s.
-                Reason: %s
-
-                Thanks,
-                BookStore Team
-                ===================================================
-                """
-                        .formatted(properties.supportEmail(), event.orderNumber(), event.reason());
-        log.info("\n{}", message);
-        sendEmail(properties.supportEmail(), "Order Processing Failure Notification", message);
+    public CompletableFuture<Void> sendOrderErrorEventNotification(OrderErrorEvent event) {
+        return sendEmail(
+                properties.supportEmail(),
+                event.orderNumber(),
+                NotificationType.ORDER_ERROR,
+                Map.of(
+                        "recipientName", properties.supportEmail(),
+                        "orderNumber", event.orderNumber(),
+                        "reason", Objects.requireNonNullElse(event.reason(), "")));
     }
 
-    private void sendEmail(String recipient, String subject, String content) {
+    // Only builds the message, delivery happens on the MailDeliveryPipeline workers
+    private CompletableFuture<Void> sendEmail(
+            String recipient, String orderNumber, NotificationType type, Map<String, ?> model) {
         try {
+            RenderedNotification notification = templates.render(type, model);
+            log.info("Sending {} for orderNumber: {} to: {}", type, orderNumber, recipient);
+            log.debug("\n{}", notification.text());
             MimeMessage mimeMessage = emailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, "utf-8");
+            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "utf-8");
             helper.setFrom(properties.supportEmail());
             helper.setTo(recipient);
-            helper.setSubject(subject);
-            helper.setText(content);
-            emailSender.send(mimeMessage);
-            log.info("Email sent to: {}", recipient);
+            helper.setSubject(notification.subject());
+            helper.setText(notification.text(), notification.html());
+            return mailDeliveryPipeline.submit(mimeMessage, recipient);
         } catch (Exception e) {
-            throw new RuntimeException("Error while sending email", e);
+            return CompletableFuture.failedFuture(new RuntimeException("Error while sending email", e));
         }
     }
 }
@@ -0,0 +1,84 @@
+package com.kiin.bookstore.notifications.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// A template compiled once into literal segments and {{placeholder}} names, rendering only appends
+// to a per-thread buffer that is reused across emails
+final class NotificationTemplate {
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    private final String[] literals;
+    private final String[] placeholders;
+    private final boolean escapeHtml;
+
+    private NotificationTemplate(String[] literals, String[] placeholders, boolean escapeHtml) {
+        this.literals = literals;
+        this.placeholders = placeholders;
+        this.escapeHtml = escapeHtml;
+    }
+
+    static NotificationTemplate compile(String source, boolean escapeHtml) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        int position = 0;
+        int open;
+        while ((open = source.indexOf(OPEN, position)) >= 0) {
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at index " + open);
+            }
+            literals.add(source.substring(position, open));
+            placeholders.add(source.substring(open + OPEN.length(), close).strip());
+            position = close + CLOSE.length();
+        }
+        literals.add(source.substring(position));
+        return new NotificationTemplate(
+                literals.toArray(String[]::new), placeholders.toArray(String[]::new), escapeHtml);
+    }
+
+    String render(Map<String, ?> model) {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        renderTo(buffer, model);
+        String result = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+            BUFFER.remove();
+        }
+        return result;
+    }
+
+    void renderTo(StringBuilder out, Map<String, ?> model) {
+        for (int i = 0; i < placeholders.length; i++) {
+            out.append(literals[i]);
+            Object value = model.get(placeholders[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("No value for placeholder " + placeholders[i]);
+            }
+            if (escapeHtml) {
+                appendEscaped(out, value.toString());
+            } else {
+                out.append(value);
+            }
+        }
+        out.append(literals[placeholders.length]);
+    }
+
+    private static void appendEscaped(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
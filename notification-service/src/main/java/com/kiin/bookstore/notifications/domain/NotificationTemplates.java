@@ -0,0 +1,66 @@
+package com.kiin.bookstore.notifications.domain;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+// Loads and compiles the plain-text and HTML variant of every notification at startup,
+// a missing or malformed template fails the application context instead of the first email
+@Component
+class NotificationTemplates {
+    private static final String TEMPLATES_PATH = "templates/notifications/";
+
+    private final Map<NotificationType, NotificationTemplate> textTemplates = new EnumMap<>(NotificationType.class);
+    private final Map<NotificationType, NotificationTemplate> htmlTemplates = new EnumMap<>(NotificationType.class);
+
+    NotificationTemplates() {
+        for (NotificationType type : NotificationType.values()) {
+            textTemplates.put(type, NotificationTemplate.compile(load(type.templateName() + ".txt"), false));
+            htmlTemplates.put(type, NotificationTemplate.compile(load(type.templateName() + ".html"), true));
+        }
+    }
+
+    RenderedNotification render(NotificationType type, Map<String, ?> model) {
+        return new RenderedNotification(
+                type.subject(),
+                textTemplates.get(type).render(model),
+                htmlTemplates.get(type).render(model));
+    }
+
+    private static String load(String fileName) {
+        try {
+            return new ClassPathResource(TEMPLATES_PATH + fileName).getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load notification template " + fileName, e);
+        }
+    }
+
+    enum NotificationType {
+        ORDER_CREATED("order-created", "Order Created Notification"),
+        ORDER_DELIVERED("order-delivered", "Order Delivered Notification"),
+        ORDER_CANCELLED("order-cancelled", "Order Cancelled Notification"),
+        ORDER_ERROR("order-error", "Order Processing Failure Notification");
+
+        private final String templateName;
+        private final String subject;
+
+        NotificationType(String templateName, String subject) {
+            this.templateName = templateName;
+            this.subject = subject;
+        }
+
+        String templateName() {
+            return templateName;
+        }
+
+        String subject() {
+            return subject;
+        }
+    }
+
+    record RenderedNotification(String subject, String text, String html) {}
+}
@@ -0,0 +1,85 @@
+package com.kiin.bookstore.notifications.domain;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kiin.bookstore.notifications.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Tracks which order events were already notified. An event is claimed by inserting its id before the
+// notification is sent, so of several consumers holding the same event only the one whose insert went
+// through sends it. Recently claimed ids are answered from memory without a round trip.
+@Component
+public class OrderEventDeduplicator {
+    private static final String CLAIM_EVENT_IDS_SQL =
+            """
+        insert into order_events (event_id, created_at)
+        select unnest(?), ?
+        on conflict (event_id) do nothing
+        returning event_id
+        """;
+    private static final String RELEASE_EVENT_IDS_SQL = "delete from order_events where event_id = any(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, Boolean> recentEventIds;
+    private final Counter cacheHitCounter;
+
+    OrderEventDeduplicator(JdbcTemplate jdbcTemplate, ApplicationProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.recentEventIds = Caffeine.newBuilder()
+                .maximumSize(properties.recentEventIdsMaximumSize())
+                .expireAfterWrite(properties.recentEventIdsTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, recentEventIds, "recent-event-ids");
+        this.cacheHitCounter = Counter.builder("notifications.duplicates.cache.hits")
+                .description("Duplicate events detected without querying the database")
+                .register(meterRegistry);
+    }
+
+    // Returns the ids this caller now owns, ids claimed before, here or by another consumer, are left out.
+    // One insert per listener batch; a crash after the claim loses that notification rather than sending it twice.
+    public Set<String> claim(Collection<String> eventIds) {
+        List<String> unknown = eventIds.stream()
+                .filter(eventId -> recentEventIds.getIfPresent(eventId) == null)
+                .toList();
+        cacheHitCounter.increment(eventIds.size() - unknown.size());
+        if (unknown.isEmpty()) {
+            return Set.of();
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<String> claimed = jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(CLAIM_EVENT_IDS_SQL);
+                    ps.setArray(1, con.createArrayOf("text", unknown.toArray()));
+                    ps.setTimestamp(2, now);
+                    return ps;
+                },
+                (rs, rowNum) -> rs.getString(1));
+        unknown.forEach(eventId -> recentEventIds.put(eventId, Boolean.TRUE));
+        return new HashSet<>(claimed);
+    }
+
+    // Gives up the claims of events that could not be sent, so their retry is not skipped as a duplicate
+    public void release(Collection<String> eventIds) {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(RELEASE_EVENT_IDS_SQL);
+            ps.setArray(1, con.createArrayOf("text", eventIds.toArray()));
+            return ps;
+        });
+        recentEventIds.invalidateAll(eventIds);
+    }
+}
@@ -2,6 +2,4 @@ package com.kiin.bookstore.notifications.domain;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface OrderEventRepository extends JpaRepository<OrderEventEntity, Long> {
-    boolean existsByEventId(String eventId);
-}
+public interface OrderEventRepository extends JpaRepository<OrderEventEntity, Long> {}
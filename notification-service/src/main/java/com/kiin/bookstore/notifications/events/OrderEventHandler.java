@@ -1,15 +1,24 @@
 package com.kiin.bookstore.notifications.events;
 
+import com.kiin.bookstore.notifications.ApplicationProperties;
 import com.kiin.bookstore.notifications.domain.NotificationService;
-import com.kiin.bookstore.notifications.domain.OrderEventEntity;
-import com.kiin.bookstore.notifications.domain.OrderEventRepository;
+import com.kiin.bookstore.notifications.domain.OrderEventDeduplicator;
 import com.kiin.bookstore.notifications.domain.models.OrderCancelledEvent;
 import com.kiin.bookstore.notifications.domain.models.OrderCreatedEvent;
 import com.kiin.bookstore.notifications.domain.models.OrderDeliveredEvent;
 import com.kiin.bookstore.notifications.domain.models.OrderErrorEvent;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -17,58 +26,121 @@ public class OrderEventHandler {
     Logger log = LoggerFactory.getLogger(OrderEventHandler.class);
 
     private final NotificationService notificationService;
-    private final OrderEventRepository orderEventRepository;
+    private final OrderEventDeduplicator orderEventDeduplicator;
+    private final OrderEventRetryPublisher retryPublisher;
+    private final ApplicationProperties properties;
 
-    public OrderEventHandler(NotificationService notificationService, OrderEventRepository orderEventRepository) {
+    public OrderEventHandler(
+            NotificationService notificationService,
+            OrderEventDeduplicator orderEventDeduplicator,
+            OrderEventRetryPublisher retryPublisher,
+            ApplicationProperties properties) {
         this.notificationService = notificationService;
-        this.orderEventRepository = orderEventRepository;
+        this.orderEventDeduplicator = orderEventDeduplicator;
+        this.retryPublisher = retryPublisher;
+        this.properties = properties;
     }
 
-    @RabbitListener(queues = "${notifications.new-orders-queue}")
-    void handlerOrderCreatedEvent(OrderCreatedEvent event) {
-        log.info("New Order Event received: {}", event);
-        if (orderEventRepository.existsByEventId(event.eventId())) {
-            log.warn("Received duplicated OrderCreatedEvent with eventId: {}", event.eventId());
-        } else {
-            notificationService.sendOrderCreatedNotification(event);
-            OrderEventEntity orderEventEntity = new OrderEventEntity(event.eventId());
-            orderEventRepository.save(orderEventEntity);
-        }
+    @RabbitListener(
+            queues = "${notifications.new-orders-queue}",
+            containerFactory = "newOrdersListenerContainerFactory")
+    void handleOrderCreatedEvents(List<Message<OrderCreatedEvent>> events) {
+        log.info("{} New Order Events received", events.size());
+        handle(
+                properties.newOrdersQueue(),
+                events,
+                OrderCreatedEvent::eventId,
+                notificationService::sendOrderCreatedNotification);
     }
 
-    @RabbitListener(queues = "${notifications.delivered-orders-queue}")
-    void handlerOrderCreatedEvent(OrderDeliveredEvent event) {
-        log.info("Delivered Order Event received: {}", event);
-        if (orderEventRepository.existsByEventId(event.eventId())) {
-            log.warn("Received duplicated OrderDeliveredEvent with eventId: {}", event.eventId());
-        } else {
-            notificationService.sendOrderDeliveredNotification(event);
-            OrderEventEntity orderEventEntity = new OrderEventEntity(event.eventId());
-            orderEventRepository.save(orderEventEntity);
-        }
+    @RabbitListener(
+            queues = "${notifications.delivered-orders-queue}",
+            containerFactory = "deliveredOrdersListenerContainerFactory")
+    void handleOrderDeliveredEvents(List<Message<OrderDeliveredEvent>> events) {
+        log.info("{} Delivered Order Events received", events.size());
+        handle(
+                properties.deliveredOrdersQueue(),
+                events,
+                OrderDeliveredEvent::eventId,
+                notificationService::sendOrderDeliveredNotification);
     }
 
-    @RabbitListener(queues = "${notifications.cancelled-orders-queue}")
-    void handlerOrderCreatedEvent(OrderCancelledEvent event) {
-        log.info("Cancelled Order Event received: {}", event);
-        if (orderEventRepository.existsByEventId(event.eventId())) {
-            log.warn("Received duplicated OrderCancelledEvent with eventId: {}", event.eventId());
-        } else {
-            notificationService.sendOrderCancelledNotification(event);
-            OrderEventEntity orderEventEntity = new OrderEventEntity(event.eventId());
-            orderEventRepository.save(orderEventEntity);
+    @RabbitListener(
+            queues = "${notifications.cancelled-orders-queue}",
+            containerFactory = "cancelledOrdersListenerContainerFactory")
+    void handleOrderCancelledEvents(List<Message<OrderCancelledEvent>> events) {
+        log.info("{} Cancelled Order Events received", events.size());
+        handle(
+                properties.cancelledOrdersQueue(),
+                events,
+                OrderCancelledEvent::eventId,
+                notificationService::sendOrderCancelledNotification);
+    }
+
+    @RabbitListener(
+            queues = "${notifications.error-orders-queue}",
+            containerFactory = "errorOrdersListenerContainerFactory")
+    void handleOrderErrorEvents(List<Message<OrderErrorEvent>> events) {
+        log.info("{} Error Order Events received", events.size());
+        handle(
+                properties.errorOrdersQueue(),
+                events,
+                OrderErrorEvent::eventId,
+                notificationService::sendOrderErrorEventNotification);
+    }
+
+    // Claims the events of the batch, hands the claimed ones to the mail pipeline and waits for their delivery.
+    // Events claimed by another consumer, or earlier, are skipped. Failed events give up their claim before
+    // they move to the next retry tier, so the retry is not skipped as a duplicate. A failure outside a single
+    // delivery, e.g. the claim itself, sends the whole batch through the retry tiers. The batch is only
+    // rejected, and parked, when releasing a claim or the retry publish fails.
+    private <T> void handle(
+            String queue,
+            List<Message<T>> messages,
+            Function<T, String> eventId,
+            Function<T, CompletableFuture<Void>> sender) {
+        Map<String, Message<T>> messagesById = new LinkedHashMap<>();
+        messages.forEach(message -> messagesById.putIfAbsent(eventId.apply(message.getPayload()), message));
+        Set<String> claimed;
+        try {
+            claimed = orderEventDeduplicator.claim(messagesById.keySet());
+        } catch (RuntimeException e) {
+            log.error("Failed to handle {} events from {}, retrying them", messagesById.size(), queue, e);
+            messagesById.values().forEach(message -> retryPublisher.retryOrPark(queue, message));
+            return;
+        }
+        if (claimed.size() < messagesById.size()) {
+            List<String> duplicates = messagesById.keySet().stream()
+                    .filter(id -> !claimed.contains(id))
+                    .toList();
+            log.warn("Skipping {} duplicated events with eventIds: {}", duplicates.size(), duplicates);
+        }
+
+        Map<String, CompletableFuture<Void>> deliveries = new LinkedHashMap<>();
+        messagesById.forEach((id, message) -> {
+            if (claimed.contains(id)) {
+                deliveries.put(id, send(sender, message.getPayload()));
+            }
+        });
+        List<String> failed = new ArrayList<>();
+        for (Map.Entry<String, CompletableFuture<Void>> delivery : deliveries.entrySet()) {
+            try {
+                delivery.getValue().join();
+            } catch (CompletionException e) {
+                log.error("Failed to send notification for eventId: {}", delivery.getKey(), e.getCause());
+                failed.add(delivery.getKey());
+            }
         }
+        orderEventDeduplicator.release(failed);
+        failed.forEach(id -> retryPublisher.retryOrPark(queue, messagesById.get(id)));
     }
 
-    @RabbitListener(queues = "${notifications.error-orders-queue}")
-    void handlerOrderCreatedEvent(OrderErrorEvent event) {
-        log.info("Error Order Event received: {}", event);
-        if (orderEventRepository.existsByEventId(event.eventId())) {
-            log.warn("Received duplicated OrderErrorEvent with eventId: {}", event.eventId());
-        } else {
-            notificationService.sendOrderErrorEventNotification(event);
-            OrderEventEntity orderEventEntity = new OrderEventEntity(event.eventId());
-            orderEventRepository.save(orderEventEntity);
+    // A sender that throws instead of returning a failed future only fails its own event
+    private static <T> CompletableFuture<Void> send(Function<T, CompletableFuture<Void>> sender, T event) {
+        try {
+            return sender.apply(event);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
         }
     }
 }
@@ -0,0 +1,54 @@
+package com.kiin.bookstore.notifications.events;
+
+import com.kiin.bookstore.notifications.ApplicationProperties;
+import java.time.Duration;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.stereotype.Component;
+
+// Moves a failed message to the next retry tier instead of requeueing it, so a poison message
+// waits out its backoff without blocking the queue and ends up in the parking lot
+@Component
+public class OrderEventRetryPublisher {
+    private static final Logger log = LoggerFactory.getLogger(OrderEventRetryPublisher.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final ApplicationProperties properties;
+
+    public OrderEventRetryPublisher(RabbitTemplate rabbitTemplate, ApplicationProperties properties) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.properties = properties;
+    }
+
+    public void retryOrPark(String queue, Message<?> message) {
+        int retryCount = retryCount(message);
+        List<Duration> delays = properties.retryDelays();
+        if (retryCount < delays.size()) {
+            String retryQueue = RetryTopology.retryQueue(queue, delays.get(retryCount));
+            log.info("Retrying message from {} through {}", queue, retryQueue);
+            rabbitTemplate.convertAndSend("", retryQueue, message.getPayload(), amqpMessage -> {
+                amqpMessage.getMessageProperties().setHeader(RetryTopology.RETRY_COUNT_HEADER, retryCount + 1);
+                return amqpMessage;
+            });
+        } else {
+            log.warn("Parking message from {} after {} retries", queue, retryCount);
+            rabbitTemplate.convertAndSend(
+                    RetryTopology.deadLetterExchange(properties.orderEventsExchange()),
+                    queue,
+                    message.getPayload(),
+                    amqpMessage -> {
+                        amqpMessage.getMessageProperties().setHeader(RetryTopology.RETRY_COUNT_HEADER, retryCount);
+                        return amqpMessage;
+                    });
+        }
+    }
+
+    private static int retryCount(Message<?> message) {
+        return message.getHeaders().get(RetryTopology.RETRY_COUNT_HEADER) instanceof Number count
+                ? count.intValue()
+                : 0;
+    }
+}
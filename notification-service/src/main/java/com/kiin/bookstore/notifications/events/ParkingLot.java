@@ -0,0 +1,74 @@
+package com.kiin.bookstore.notifications.events;
+
+import com.kiin.bookstore.notifications.ApplicationProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+// Not exposed over HTTP, notification-service has no authentication. Parked counts are published as the
+// notifications.parking-lot.messages gauge and replay is a JMX operation for operators.
+@Component
+@ManagedResource(objectName = "bookstore.notifications:name=ParkingLot")
+public class ParkingLot {
+    private static final Logger log = LoggerFactory.getLogger(ParkingLot.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final AmqpAdmin amqpAdmin;
+    private final ApplicationProperties properties;
+
+    public ParkingLot(
+            RabbitTemplate rabbitTemplate,
+            AmqpAdmin amqpAdmin,
+            ApplicationProperties properties,
+            MeterRegistry meterRegistry) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.amqpAdmin = amqpAdmin;
+        this.properties = properties;
+        for (String queue : this.queues()) {
+            Gauge.builder("notifications.parking-lot.messages", () -> this.countParkedMessages(queue))
+                    .description("Messages parked after running out of retries")
+                    .tag("queue", queue)
+                    .register(meterRegistry);
+        }
+    }
+
+    public Set<String> queues() {
+        return Set.of(
+                properties.newOrdersQueue(),
+                properties.deliveredOrdersQueue(),
+                properties.cancelledOrdersQueue(),
+                properties.errorOrdersQueue());
+    }
+
+    public int countParkedMessages(String queue) {
+        QueueInformation info = amqpAdmin.getQueueInfo(RetryTopology.parkingLotQueue(queue));
+        return info == null ? 0 : info.getMessageCount();
+    }
+
+    // Publishes up to max parked messages back to their queue with a fresh retry budget
+    @ManagedOperation(description = "Moves up to max parked messages of a queue back to it")
+    public int replay(String queue, int max) {
+        if (!this.queues().contains(queue)) {
+            throw new IllegalArgumentException("Unknown queue " + queue);
+        }
+        String parkingLotQueue = RetryTopology.parkingLotQueue(queue);
+        int replayed = 0;
+        Message message;
+        while (replayed < max && (message = rabbitTemplate.receive(parkingLotQueue)) != null) {
+            message.getMessageProperties().getHeaders().remove(RetryTopology.RETRY_COUNT_HEADER);
+            rabbitTemplate.send(properties.orderEventsExchange(), queue, message);
+            replayed++;
+        }
+        log.info("Replayed {} messages from {}", replayed, parkingLotQueue);
+        return replayed;
+    }
+}
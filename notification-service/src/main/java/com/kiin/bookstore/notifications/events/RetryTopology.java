@@ -0,0 +1,27 @@
+package com.kiin.bookstore.notifications.events;
+
+import java.time.Duration;
+
+// Names of the dead-letter and retry resources derived from an order events queue.
+// A failed message goes to <queue>.retry.<delay>, whose TTL dead-letters it back to the queue,
+// after the last delay it is parked in <queue>.parking-lot until replayed.
+public final class RetryTopology {
+    public static final String RETRY_COUNT_HEADER = "x-retry-count";
+
+    private RetryTopology() {}
+
+    public static String deadLetterExchange(String orderEventsExchange) {
+        return orderEventsExchange + ".dlx";
+    }
+
+    // Whole seconds keep their short name, anything finer is named in milliseconds, so two different delays
+    // never share a queue and its x-message-ttl
+    public static String retryQueue(String queue, Duration delay) {
+        long millis = delay.toMillis();
+        return queue + ".retry." + (millis % 1000 == 0 ? millis / 1000 + "s" : millis + "ms");
+    }
+
+    public static String parkingLotQueue(String queue) {
+        return queue + ".parking-lot";
+    }
+}
@@ -0,0 +1,164 @@
+package com.kiin.bookstore.notifications.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+
+import com.kiin.bookstore.notifications.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+
+class MailDeliveryPipelineTests {
+    private JavaMailSender emailSender;
+    private ApplicationProperties properties;
+    private MailDeliveryPipeline pipeline;
+    private final List<Integer> sentBatchSizes = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        emailSender = mock(JavaMailSender.class);
+        properties = mock(ApplicationProperties.class);
+        given(properties.mailQueueCapacity()).willReturn(100);
+        given(properties.mailConnections()).willReturn(1);
+        given(properties.mailBatchSize()).willReturn(20);
+        given(properties.mailRatePerDomain()).willReturn(1000);
+        given(properties.mailMaxAttempts()).willReturn(2);
+        given(properties.mailRetryBackoff()).willReturn(Duration.ofMillis(10));
+        pipeline = new MailDeliveryPipeline(emailSender, properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void shouldSendQueuedEmailsTogether() {
+        CountDownLatch allSubmitted = new CountDownLatch(1);
+        willAnswer(invocation -> {
+                    // Hold the only connection so the remaining emails queue up behind it
+                    allSubmitted.await();
+                    sentBatchSizes.add(invocation.getArguments().length);
+                    return null;
+                })
+                .given(emailSender)
+                .send(any(MimeMessage[].class));
+
+        List<CompletableFuture<Void>> results = List.of(
+                pipeline.submit(newMessage(), "a@mail.com"),
+                pipeline.submit(newMessage(), "b@mail.com"),
+                pipeline.submit(newMessage(), "c@mail.com"));
+        allSubmitted.countDown();
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).join();
+
+        assertThat(sentBatchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(3);
+        assertThat(sentBatchSizes.size()).isLessThan(3);
+    }
+
+    @Test
+    void shouldRetryFailedEmail() {
+        MimeMessage message = newMessage();
+        AtomicBoolean failedOnce = new AtomicBoolean();
+        willAnswer(invocation -> {
+                    if (failedOnce.compareAndSet(false, true)) {
+                        throw new MailSendException(Map.of(message, new RuntimeException("Connection reset")));
+                    }
+                    return null;
+                })
+                .given(emailSender)
+                .send(any(MimeMessage[].class));
+
+        pipeline.submit(message, "a@mail.com").join();
+
+        assertThat(failedOnce).isTrue();
+    }
+
+    @Test
+    void shouldFailScheduledRetriesOnShutdown() throws InterruptedException {
+        given(properties.mailRetryBackoff()).willReturn(Duration.ofMinutes(1));
+        pipeline.shutdown();
+        pipeline = new MailDeliveryPipeline(emailSender, properties, new SimpleMeterRegistry());
+        CountDownLatch sendFailed = new CountDownLatch(1);
+        willAnswer(invocation -> {
+                    sendFailed.countDown();
+                    throw new MailSendException("Connection refused");
+                })
+                .given(emailSender)
+                .send(any(MimeMessage[].class));
+
+        CompletableFuture<Void> result = pipeline.submit(newMessage(), "a@mail.com");
+        sendFailed.await();
+        pipeline.shutdown();
+
+        assertThat(result)
+                .failsWithin(Duration.ofSeconds(5))
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldKeepDeliveringOtherDomainsWhileOneBacksOff() throws InterruptedException {
+        given(properties.mailRetryBackoff()).willReturn(Duration.ofMinutes(1));
+        pipeline.shutdown();
+        pipeline = new MailDeliveryPipeline(emailSender, properties, new SimpleMeterRegistry());
+        MimeMessage failing = newMessage();
+        CountDownLatch sendFailed = new CountDownLatch(1);
+        willAnswer(invocation -> {
+                    if (List.of(invocation.getArguments()).contains(failing)) {
+                        sendFailed.countDown();
+                        throw new MailSendException("Connection refused");
+                    }
+                    return null;
+                })
+                .given(emailSender)
+                .send(any(MimeMessage[].class));
+
+        CompletableFuture<Void> backingOff = pipeline.submit(failing, "a@down.com");
+        sendFailed.await();
+        CompletableFuture<Void> sameDomain = pipeline.submit(newMessage(), "b@down.com");
+        CompletableFuture<Void> otherDomain = pipeline.submit(newMessage(), "c@mail.com");
+
+        assertThat(otherDomain).succeedsWithin(Duration.ofSeconds(5));
+        assertThat(backingOff).isNotDone();
+        assertThat(sameDomain).isNotDone();
+    }
+
+    @Test
+    void shouldFailEmailWhenSenderThrowsUnexpectedException() {
+        willAnswer(invocation -> {
+                    throw new IllegalStateException("Message could not be prepared");
+                })
+                .given(emailSender)
+                .send(any(MimeMessage[].class));
+
+        CompletableFuture<Void> result = pipeline.submit(newMessage(), "a@mail.com");
+
+        assertThat(result)
+                .failsWithin(Duration.ofSeconds(5))
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(IllegalStateException.class);
+        // The worker survived and still delivers
+        willAnswer(invocation -> null).given(emailSender).send(any(MimeMessage[].class));
+        assertThat(pipeline.submit(newMessage(), "b@mail.com")).succeedsWithin(Duration.ofSeconds(5));
+    }
+
+    private static MimeMessage newMessage() {
+        return new MimeMessage((Session) null);
+    }
+}
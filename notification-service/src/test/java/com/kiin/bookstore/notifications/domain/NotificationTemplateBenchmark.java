@@ -0,0 +1,82 @@
+package com.kiin.bookstore.notifications.domain;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Compares the previous String.formatted rendering with the precompiled templates.
+// Run with: mvn -pl notification-service test-compile exec:java -Dexec.classpathScope=test
+//   -Dexec.mainClass=com.kiin.bookstore.notifications.domain.NotificationTemplateBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotificationTemplateBenchmark {
+    private static final String FORMATTED_TEMPLATE =
+            """
+            ===================================================
+            Order Cancelled Notification
+            ----------------------------------------------------
+            Dear %s,
+            Your order with orderNumber: %s has been cancelled.
+            Reason: %s
+
+            Thanks,
+            BookStore Team
+            ===================================================
+            """;
+
+    private final NotificationTemplates templates = new NotificationTemplates();
+    private final NotificationTemplate textTemplate = NotificationTemplate.compile(
+            """
+            Dear {{customerName}},
+            Your order with orderNumber: {{orderNumber}} has been cancelled.
+            Reason: {{reason}}
+
+            Thanks,
+            BookStore Team
+            """,
+            false);
+    private final String customerName = "Khoa";
+    private final String orderNumber = "3f2a1c9e-5b7d-4e8a-9c1f-2d3e4f5a6b7c";
+    private final String reason = "Can't deliver to the location";
+
+    @Benchmark
+    public String formatted() {
+        return FORMATTED_TEMPLATE.formatted(customerName, orderNumber, reason);
+    }
+
+    @Benchmark
+    public String compiledText() {
+        return textTemplate.render(Map.of("customerName", customerName, "orderNumber", orderNumber, "reason", reason));
+    }
+
+    @Benchmark
+    public NotificationTemplates.RenderedNotification compiledTextAndHtml() {
+        return templates.render(
+                NotificationTemplates.NotificationType.ORDER_CANCELLED,
+                Map.of("customerName", customerName, "orderNumber", orderNumber, "reason", reason));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                        .include(NotificationTemplateBenchmark.class.getSimpleName())
+                        .addProfiler(GCProfiler.class)
+                        .build())
+                .run();
+    }
+}
@@ -0,0 +1,44 @@
+package com.kiin.bookstore.notifications.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class NotificationTemplateTests {
+
+    @Test
+    void shouldRenderPlaceholders() {
+        NotificationTemplate template = NotificationTemplate.compile("Dear {{ name }}, order {{orderNumber}}.", false);
+
+        assertThat(template.render(Map.of("name", "Khoa", "orderNumber", "order-123")))
+                .isEqualTo("Dear Khoa, order order-123.");
+    }
+
+    @Test
+    void shouldEscapeValuesInHtmlTemplates() {
+        NotificationTemplate template = NotificationTemplate.compile("<p>{{reason}}</p>", true);
+
+        assertThat(template.render(Map.of("reason", "<script>&"))).isEqualTo("<p>&lt;script&gt;&amp;</p>");
+    }
+
+    @Test
+    void shouldRejectUnclosedPlaceholder() {
+        assertThatThrownBy(() -> NotificationTemplate.compile("Dear {{name", false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldCompileAllNotificationTemplates() {
+        NotificationTemplates templates = new NotificationTemplates();
+
+        NotificationTemplates.RenderedNotification notification = templates.render(
+                NotificationTemplates.NotificationType.ORDER_CREATED,
+                Map.of("customerName", "Khoa", "orderNumber", "order-123"));
+
+        assertThat(notification.subject()).isEqualTo("Order Created Notification");
+        assertThat(notification.text()).contains("Dear Khoa,").contains("order-123");
+        assertThat(notification.html()).contains("<strong>order-123</strong>");
+    }
+}
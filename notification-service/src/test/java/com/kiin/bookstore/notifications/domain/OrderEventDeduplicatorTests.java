@@ -0,0 +1,78 @@
+package com.kiin.bookstore.notifications.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.kiin.bookstore.notifications.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+
+class OrderEventDeduplicatorTests {
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private OrderEventDeduplicator deduplicator;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        ApplicationProperties properties = mock(ApplicationProperties.class);
+        given(properties.recentEventIdsMaximumSize()).willReturn(100L);
+        given(properties.recentEventIdsTtl()).willReturn(Duration.ofMinutes(10));
+        deduplicator = new OrderEventDeduplicator(jdbcTemplate, properties, meterRegistry);
+    }
+
+    @Test
+    void shouldOnlyReturnIdsWhoseInsertWentThrough() {
+        given(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class)))
+                .willReturn(List.of("event-2"));
+
+        Set<String> claimed = deduplicator.claim(List.of("event-1", "event-2"));
+
+        assertThat(claimed).containsExactly("event-2");
+    }
+
+    @Test
+    void shouldAnswerRecentlyClaimedEventIdsFromMemory() {
+        given(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class)))
+                .willReturn(List.of("event-1", "event-2"));
+        deduplicator.claim(List.of("event-1", "event-2"));
+        clearInvocations(jdbcTemplate);
+
+        Set<String> claimed = deduplicator.claim(List.of("event-1", "event-2"));
+
+        assertThat(claimed).isEmpty();
+        verify(jdbcTemplate, never()).query(any(PreparedStatementCreator.class), any(RowMapper.class));
+        assertThat(meterRegistry
+                        .get("notifications.duplicates.cache.hits")
+                        .counter()
+                        .count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void shouldClaimReleasedEventIdsAgain() {
+        given(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class)))
+                .willReturn(List.of("event-1"));
+        deduplicator.claim(List.of("event-1"));
+
+        deduplicator.release(List.of("event-1"));
+        Set<String> claimed = deduplicator.claim(List.of("event-1"));
+
+        assertThat(claimed).containsExactly("event-1");
+        verify(jdbcTemplate, times(2)).query(any(PreparedStatementCreator.class), any(RowMapper.class));
+    }
+}
@@ -0,0 +1,60 @@
+package com.kiin.bookstore.notifications.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.kiin.bookstore.notifications.AbstractIT;
+import com.kiin.bookstore.notifications.domain.NotificationService;
+import com.kiin.bookstore.notifications.domain.models.OrderCreatedEvent;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+// Two consumers get the same event, e.g. after the relay republished it, and handle their batches at once
+class OrderEventClaimTests extends AbstractIT {
+
+    @Autowired
+    OrderEventHandler handler;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    NotificationService notificationService;
+
+    @Test
+    void shouldSendEventOnceWhenTwoBatchesCarryItConcurrently() throws Exception {
+        given(notificationService.sendOrderCreatedNotification(any()))
+                .willReturn(CompletableFuture.completedFuture(null));
+        Message<OrderCreatedEvent> message = MessageBuilder.withPayload(
+                        new OrderCreatedEvent("event-claimed-once", "order-1", Set.of(), null, null, null))
+                .build();
+        CyclicBarrier start = new CyclicBarrier(2);
+        Runnable consumer = () -> {
+            try {
+                start.await();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            handler.handleOrderCreatedEvents(List.of(message));
+        };
+
+        CompletableFuture.allOf(CompletableFuture.runAsync(consumer), CompletableFuture.runAsync(consumer))
+                .join();
+
+        verify(notificationService, times(1)).sendOrderCreatedNotification(message.getPayload());
+        assertThat(jdbcTemplate.queryForObject(
+                        "select count(*) from order_events where event_id = 'event-claimed-once'", Integer.class))
+                .isEqualTo(1);
+    }
+}
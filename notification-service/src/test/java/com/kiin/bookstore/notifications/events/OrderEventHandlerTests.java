@@ -0,0 +1,100 @@
+package com.kiin.bookstore.notifications.events;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.kiin.bookstore.notifications.ApplicationProperties;
+import com.kiin.bookstore.notifications.domain.NotificationService;
+import com.kiin.bookstore.notifications.domain.OrderEventDeduplicator;
+import com.kiin.bookstore.notifications.domain.models.OrderCreatedEvent;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+class OrderEventHandlerTests {
+    private final Message<OrderCreatedEvent> sentMessage = message("event-1");
+    private final Message<OrderCreatedEvent> failedMessage = message("event-2");
+
+    private NotificationService notificationService;
+    private OrderEventDeduplicator orderEventDeduplicator;
+    private OrderEventRetryPublisher retryPublisher;
+    private OrderEventHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        notificationService = mock(NotificationService.class);
+        orderEventDeduplicator = mock(OrderEventDeduplicator.class);
+        retryPublisher = mock(OrderEventRetryPublisher.class);
+        ApplicationProperties properties = mock(ApplicationProperties.class);
+        given(properties.newOrdersQueue()).willReturn("new-orders");
+        handler = new OrderEventHandler(notificationService, orderEventDeduplicator, retryPublisher, properties);
+        given(orderEventDeduplicator.claim(anyCollection())).willReturn(Set.of("event-1", "event-2"));
+        given(notificationService.sendOrderCreatedNotification(sentMessage.getPayload()))
+                .willReturn(CompletableFuture.completedFuture(null));
+        given(notificationService.sendOrderCreatedNotification(failedMessage.getPayload()))
+                .willReturn(CompletableFuture.failedFuture(new IllegalStateException("SMTP is down")));
+    }
+
+    @Test
+    void shouldReleaseFailedEventsBeforeRetryingThem() {
+        handler.handleOrderCreatedEvents(List.of(sentMessage, failedMessage));
+
+        InOrder inOrder = inOrder(orderEventDeduplicator, retryPublisher);
+        inOrder.verify(orderEventDeduplicator).release(List.of("event-2"));
+        inOrder.verify(retryPublisher).retryOrPark("new-orders", failedMessage);
+        verify(retryPublisher, never()).retryOrPark("new-orders", sentMessage);
+    }
+
+    @Test
+    void shouldOnlySendClaimedEvents() {
+        given(orderEventDeduplicator.claim(anyCollection())).willReturn(Set.of("event-1"));
+
+        handler.handleOrderCreatedEvents(List.of(sentMessage, failedMessage));
+
+        verify(notificationService).sendOrderCreatedNotification(sentMessage.getPayload());
+        verify(notificationService, never()).sendOrderCreatedNotification(failedMessage.getPayload());
+        verify(retryPublisher, never()).retryOrPark(any(), any());
+    }
+
+    @Test
+    void shouldRejectBatchWhenClaimCannotBeReleased() {
+        willThrow(new IllegalStateException("database is down"))
+                .given(orderEventDeduplicator)
+                .release(anyCollection());
+
+        assertThatThrownBy(() -> handler.handleOrderCreatedEvents(List.of(sentMessage, failedMessage)))
+                .isInstanceOf(IllegalStateException.class);
+
+        verify(retryPublisher, never()).retryOrPark(any(), any());
+    }
+
+    @Test
+    void shouldRetryWholeBatchWhenClaimFails() {
+        given(orderEventDeduplicator.claim(anyCollection())).willThrow(new IllegalStateException("database is down"));
+
+        handler.handleOrderCreatedEvents(List.of(sentMessage, failedMessage));
+
+        verify(retryPublisher).retryOrPark("new-orders", sentMessage);
+        verify(retryPublisher).retryOrPark("new-orders", failedMessage);
+        verify(notificationService, never()).sendOrderCreatedNotification(any());
+        verify(orderEventDeduplicator, never()).release(anyCollection());
+    }
+
+    private static Message<OrderCreatedEvent> message(String eventId) {
+        return MessageBuilder.withPayload(
+                        new OrderCreatedEvent(eventId, "order-" + eventId, Set.of(), null, null, null))
+                .build();
+    }
+}
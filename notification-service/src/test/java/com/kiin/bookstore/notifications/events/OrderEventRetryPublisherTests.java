@@ -0,0 +1,66 @@
+package com.kiin.bookstore.notifications.events;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import com.kiin.bookstore.notifications.ApplicationProperties;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+class OrderEventRetryPublisherTests {
+    private RabbitTemplate rabbitTemplate;
+    private OrderEventRetryPublisher retryPublisher;
+
+    @BeforeEach
+    void setUp() {
+        rabbitTemplate = mock(RabbitTemplate.class);
+        ApplicationProperties properties = mock(ApplicationProperties.class);
+        given(properties.orderEventsExchange()).willReturn("orders-exchange");
+        given(properties.retryDelays()).willReturn(List.of(Duration.ofSeconds(5), Duration.ofSeconds(30)));
+        retryPublisher = new OrderEventRetryPublisher(rabbitTemplate, properties);
+    }
+
+    @Test
+    void shouldSendFirstFailureToShortestRetryQueue() {
+        Message<String> message = MessageBuilder.withPayload("event").build();
+
+        retryPublisher.retryOrPark("new-orders", message);
+
+        verify(rabbitTemplate)
+                .convertAndSend(eq(""), eq("new-orders.retry.5s"), eq("event"), any(MessagePostProcessor.class));
+    }
+
+    @Test
+    void shouldBackOffToNextRetryQueue() {
+        Message<String> message = MessageBuilder.withPayload("event")
+                .setHeader(RetryTopology.RETRY_COUNT_HEADER, 1)
+                .build();
+
+        retryPublisher.retryOrPark("new-orders", message);
+
+        verify(rabbitTemplate)
+                .convertAndSend(eq(""), eq("new-orders.retry.30s"), eq("event"), any(MessagePostProcessor.class));
+    }
+
+    @Test
+    void shouldParkMessageAfterLastRetry() {
+        Message<String> message = MessageBuilder.withPayload("event")
+                .setHeader(RetryTopology.RETRY_COUNT_HEADER, 2)
+                .build();
+
+        retryPublisher.retryOrPark("new-orders", message);
+
+        verify(rabbitTemplate)
+                .convertAndSend(
+                        eq("orders-exchange.dlx"), eq("new-orders"), eq("event"), any(MessagePostProcessor.class));
+    }
+}
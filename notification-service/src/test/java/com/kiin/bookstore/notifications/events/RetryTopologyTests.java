@@ -0,0 +1,26 @@
+package com.kiin.bookstore.notifications.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class RetryTopologyTests {
+
+    @Test
+    void shouldNameRetryQueuesByTheirExactDelay() {
+        List<String> names = List.of(
+                        Duration.ofMillis(500), Duration.ofMillis(800), Duration.ofMillis(1500), Duration.ofSeconds(5))
+                .stream()
+                .map(delay -> RetryTopology.retryQueue("new-orders", delay))
+                .toList();
+
+        assertThat(names)
+                .containsExactly(
+                        "new-orders.retry.500ms",
+                        "new-orders.retry.800ms",
+                        "new-orders.retry.1500ms",
+                        "new-orders.retry.5s");
+    }
+}
@@ -1,7 +1,12 @@
 package com.kiin.bookstore.orders;
 
+import jakarta.validation.constraints.Min;
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
 
+@Validated
 @ConfigurationProperties(prefix = "orders")
 public record ApplicationProperties(
         String catalogServiceUrl,
@@ -9,4 +14,26 @@ public record ApplicationProperties(
         String newOrdersQueue,
         String deliveredOrdersQueue,
         String cancelledOrdersQueue,
-        String errorOrdersQueue) {}
+        String errorOrdersQueue,
+        @DefaultValue("100") @Min(1) int publishOrderEventsBatchSize,
+        @DefaultValue("1s") Duration publishOrderEventsMinInterval,
+        @DefaultValue("30s") Duration publishOrderEventsMaxInterval,
+        @DefaultValue("true") boolean publishOrderEventsListenNotify,
+        @DefaultValue("10") @Min(1) int publishOrderEventsMaxAttempts,
+        @DefaultValue("256") @Min(1) int publisherConfirmWindow,
+        @DefaultValue("10s") Duration publisherConfirmTimeout,
+        @DefaultValue("10000") @Min(1) long productCacheMaximumSize,
+        @DefaultValue("24h") Duration productCacheTtl,
+        @DefaultValue("15m") Duration productCacheRefreshAfter,
+        @DefaultValue("500") @Min(1) int newOrdersFetchSize,
+        @DefaultValue("50") @Min(1) int newOrdersChunkSize,
+        @DefaultValue("4") @Min(1) int newOrdersWorkers,
+        @DefaultValue("10000") @Min(1) int newOrdersQueueCapacity,
+        @DefaultValue("30d") Duration newOrdersMaxAge,
+        @DefaultValue("3") @Min(1) int orderPartitionsAhead,
+        @DefaultValue("12") @Min(1) int orderRetentionMonths,
+        @DefaultValue("24h") Duration idempotencyKeyTtl,
+        @DefaultValue("100000") @Min(1) long idempotencyKeyMaximumSize,
+        @DefaultValue("30s") Duration idempotencyKeyWaitTimeout,
+        @DefaultValue("catalog-events") String catalogEventsExchange,
+        @DefaultValue("orders.product-events") String productEventsQueue) {}
@@ -2,22 +2,30 @@ package com.kiin.bookstore.orders.clients.catalog;
 
 import com.kiin.bookstore.orders.ApplicationProperties;
 import java.time.Duration;
+import java.util.concurrent.Executors;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.ClientHttpRequestFactorySettings;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
 @Configuration
 class CatalogServiceClientConfig {
     @Bean
-    RestClient restClient(RestClient.Builder builder, ApplicationProperties properties) {
-        ClientHttpRequestFactory requestFactory = ClientHttpRequestFactoryBuilder.simple()
-                .withCustomizer(customizer -> {
-                    customizer.setConnectTimeout(Duration.ofSeconds(5));
-                    customizer.setReadTimeout(Duration.ofSeconds(5));
+    RestClient restClient(RestClient.Builder builder, ApplicationProperties properties, Environment environment) {
+        // The JDK client pools connections and parks virtual threads while waiting on catalog-service
+        ClientHttpRequestFactory requestFactory = ClientHttpRequestFactoryBuilder.jdk()
+                .withHttpClientCustomizer(httpClient -> {
+                    if (Threading.VIRTUAL.isActive(environment)) {
+                        httpClient.executor(Executors.newVirtualThreadPerTaskExecutor());
+                    }
                 })
-                .build();
+                .build(ClientHttpRequestFactorySettings.defaults()
+                        .withConnectTimeout(Duration.ofSeconds(5))
+                        .withReadTimeout(Duration.ofSeconds(5)));
         return builder.baseUrl(properties.catalogServiceUrl())
                 .requestFactory(requestFactory)
                 .build();
@@ -0,0 +1,8 @@
+package com.kiin.bookstore.orders.clients.catalog;
+
+// catalog-service could not be reached or failed to answer, as opposed to a product that does not exist
+public class CatalogServiceException extends RuntimeException {
+    public CatalogServiceException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
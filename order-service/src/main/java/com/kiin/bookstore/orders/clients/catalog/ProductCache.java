@@ -0,0 +1,57 @@
+package com.kiin.bookstore.orders.clients.catalog;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.kiin.bookstore.orders.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+// Local cache in front of catalog-service. Entries are invalidated by ProductEventListener when catalog-service
+// publishes a change; the background refresh after productCacheRefreshAfter only covers missed events.
+// A failed refresh keeps the current entry, a failed load throws CatalogServiceException to the caller.
+@Component
+public class ProductCache {
+    private static final Logger log = LoggerFactory.getLogger(ProductCache.class);
+
+    private final LoadingCache<String, Product> cache;
+
+    ProductCache(ProductServiceClient client, ApplicationProperties properties, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.productCacheMaximumSize())
+                .expireAfterWrite(properties.productCacheTtl())
+                .refreshAfterWrite(properties.productCacheRefreshAfter())
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public Product load(String code) {
+                        return client.getProductByCode(code).orElse(null);
+                    }
+
+                    @Override
+                    public Map<String, Product> loadAll(Set<? extends String> codes) {
+                        return client.getProductsByCodes(Set.copyOf(codes));
+                    }
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+    }
+
+    public Map<String, Product> getProductsByCodes(Collection<String> codes) {
+        return cache.getAll(codes);
+    }
+
+    public void invalidate(String code) {
+        log.info("Invalidating cached product for code: {}", code);
+        cache.invalidate(code);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
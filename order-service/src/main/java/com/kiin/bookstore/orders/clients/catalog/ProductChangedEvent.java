@@ -0,0 +1,4 @@
+package com.kiin.bookstore.orders.clients.catalog;
+
+// Common part of the ProductUpdated and ProductPriceChanged events published by catalog-service
+public record ProductChangedEvent(String eventId, String code) {}
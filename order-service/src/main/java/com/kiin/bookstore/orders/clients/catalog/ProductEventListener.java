@@ -0,0 +1,19 @@
+package com.kiin.bookstore.orders.clients.catalog;
+
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+class ProductEventListener {
+    private final ProductCache productCache;
+
+    ProductEventListener(ProductCache productCache) {
+        this.productCache = productCache;
+    }
+
+    // Invalidation is idempotent, so redelivered or duplicate events need no deduplication
+    @RabbitListener(queues = "${orders.product-events-queue:orders.product-events}")
+    void handle(ProductChangedEvent event) {
+        productCache.invalidate(event.code());
+    }
+}
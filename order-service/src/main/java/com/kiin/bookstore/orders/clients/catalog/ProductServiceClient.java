@@ -1,14 +1,27 @@
 package com.kiin.bookstore.orders.clients.catalog;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
 
+// Only a 404 means the product does not exist. Any other failure is thrown as CatalogServiceException, so
+// ProductCache keeps serving the value it already has instead of caching the product as missing.
 @Component
 public class ProductServiceClient {
     private static final Logger log = LoggerFactory.getLogger(ProductServiceClient.class);
+    // catalog-service rejects batch lookups of more codes than ProductController.MAX_BATCH_SIZE
+    static final int MAX_BATCH_SIZE = 100;
 
     private final RestClient restClient;
 
@@ -25,9 +38,40 @@ public class ProductServiceClient {
                     .retrieve()
                     .body(Product.class);
             return Optional.ofNullable(product);
-        } catch (Exception e) {
-            log.error("Error fetching product for code: {}, Error: {}", code, e.getMessage());
+        } catch (HttpClientErrorException.NotFound e) {
             return Optional.empty();
+        } catch (RestClientException e) {
+            log.error("Error fetching product for code: {}, Error: {}", code, e.getMessage());
+            throw new CatalogServiceException("Error fetching product for code: " + code, e);
+        }
+    }
+
+    // Orders have no item limit, so larger lookups are split into batches the catalog accepts
+    public Map<String, Product> getProductsByCodes(Collection<String> codes) {
+        List<String> remaining = List.copyOf(codes);
+        Map<String, Product> products = new HashMap<>();
+        for (int from = 0; from < remaining.size(); from += MAX_BATCH_SIZE) {
+            products.putAll(fetchBatch(remaining.subList(from, Math.min(from + MAX_BATCH_SIZE, remaining.size()))));
+        }
+        return products;
+    }
+
+    private Map<String, Product> fetchBatch(List<String> codes) {
+        try {
+            log.info("Fetching products for {} codes", codes.size());
+            List<Product> products = restClient
+                    .post()
+                    .uri("/api/products/batch")
+                    .body(codes)
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<>() {});
+            if (products == null) {
+                return Map.of();
+            }
+            return products.stream().collect(Collectors.toMap(Product::code, Function.identity()));
+        } catch (RestClientException e) {
+            log.error("Error fetching products for codes: {}, Error: {}", codes, e.getMessage());
+            throw new CatalogServiceException("Error fetching products for " + codes.size() + " codes", e);
         }
     }
 }
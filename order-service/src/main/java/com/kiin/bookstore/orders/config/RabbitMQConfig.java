@@ -7,6 +7,7 @@ import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.DirectExchange;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.core.TopicExchange;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
@@ -28,7 +29,7 @@ class RabbitMQConfig {
 
     @Bean
     Queue newOrdersQueue() {
-        return QueueBuilder.durable(properties.newOrdersQueue()).build();
+        return orderEventsQueue(properties.newOrdersQueue());
     }
 
     @Bean
@@ -38,7 +39,7 @@ class RabbitMQConfig {
 
     @Bean
     Queue deliveredOrdersQueue() {
-        return QueueBuilder.durable(properties.deliveredOrdersQueue()).build();
+        return orderEventsQueue(properties.deliveredOrdersQueue());
     }
 
     @Bean
@@ -48,7 +49,7 @@ class RabbitMQConfig {
 
     @Bean
     Queue cancelledOrdersQueue() {
-        return QueueBuilder.durable(properties.cancelledOrdersQueue()).build();
+        return orderEventsQueue(properties.cancelledOrdersQueue());
     }
 
     @Bean
@@ -58,7 +59,7 @@ class RabbitMQConfig {
 
     @Bean
     Queue errorOrdersQueue() {
-        return QueueBuilder.durable(properties.errorOrdersQueue()).build();
+        return orderEventsQueue(properties.errorOrdersQueue());
     }
 
     @Bean
@@ -66,10 +67,37 @@ class RabbitMQConfig {
         return BindingBuilder.bind(errorOrdersQueue()).to(exchange()).with(properties.errorOrdersQueue());
     }
 
+    // Owned by catalog-service, declared here as well so the binding works whichever service starts first
+    @Bean
+    TopicExchange catalogEventsExchange() {
+        return new TopicExchange(properties.catalogEventsExchange());
+    }
+
+    @Bean
+    Queue productEventsQueue() {
+        return QueueBuilder.durable(properties.productEventsQueue()).build();
+    }
+
+    @Bean
+    Binding productEventsQueueBinding() {
+        return BindingBuilder.bind(productEventsQueue())
+                .to(catalogEventsExchange())
+                .with("product.#");
+    }
+
+    // Must match the declaration in notification-service, which owns the retry and parking lot queues
+    private Queue orderEventsQueue(String name) {
+        return QueueBuilder.durable(name)
+                .deadLetterExchange(properties.orderEventsExchange() + ".dlx")
+                .build();
+    }
+
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, ObjectMapper objectMapper) {
         final var rabbitTemplate = new RabbitTemplate(connectionFactory);
         rabbitTemplate.setMessageConverter(jacksonConverter(objectMapper));
+        // Unroutable order events are returned instead of silently dropped, so the relay keeps them in the outbox
+        rabbitTemplate.setMandatory(true);
         return rabbitTemplate;
     }
 
@@ -0,0 +1,8 @@
+package com.kiin.bookstore.orders.domain;
+
+public class IdempotencyKeyInProgressException extends RuntimeException {
+
+    public IdempotencyKeyInProgressException(String idempotencyKey) {
+        super("A request with Idempotency-Key " + idempotencyKey + " is still being processed, retry later");
+    }
+}
@@ -0,0 +1,89 @@
+package com.kiin.bookstore.orders.domain;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kiin.bookstore.orders.ApplicationProperties;
+import com.kiin.bookstore.orders.domain.models.CreateOrderRequest;
+import com.kiin.bookstore.orders.domain.models.CreateOrderResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+// Remembers the response of POST /api/orders per user and Idempotency-Key, so retries return the
+// stored response without validating or inserting again. The store is local to the instance.
+@Component
+public class IdempotencyKeyStore {
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyKeyStore.class);
+
+    private final Cache<String, Entry> cache;
+    private final Duration waitTimeout;
+    private final Counter replayedCounter;
+
+    IdempotencyKeyStore(ApplicationProperties properties, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.idempotencyKeyMaximumSize())
+                .expireAfterWrite(properties.idempotencyKeyTtl())
+                .recordStats()
+                .build();
+        this.waitTimeout = properties.idempotencyKeyWaitTimeout();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "order-idempotency-keys");
+        this.replayedCounter = Counter.builder("orders.idempotent.replayed")
+                .description("Create order requests answered from the Idempotency-Key store")
+                .register(meterRegistry);
+    }
+
+    public CreateOrderResponse createOrder(
+            String userName, String idempotencyKey, CreateOrderRequest request, Supplier<CreateOrderResponse> creator) {
+        String cacheKey = userName + ":" + idempotencyKey;
+        Entry candidate = new Entry(request, new CompletableFuture<>());
+        Entry entry = cache.get(cacheKey, key -> candidate);
+        if (!entry.request().equals(request)) {
+            throw new IdempotencyKeyReusedException(idempotencyKey);
+        }
+        if (entry != candidate) {
+            // A duplicate, possibly still in flight, waits for the first request instead of racing it
+            log.info("Replaying order creation for Idempotency-Key: {}", idempotencyKey);
+            replayedCounter.increment();
+            return await(idempotencyKey, entry.response());
+        }
+        try {
+            CreateOrderResponse response = creator.get();
+            candidate.response().complete(response);
+            return response;
+        } catch (Throwable e) {
+            // Failed attempts are not remembered, the client may retry with the same key. Errors are included,
+            // a future left incomplete would block every retry with this key until the entry expires.
+            cache.asMap().remove(cacheKey, candidate);
+            candidate.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Waits on a copy, so a timed out duplicate doesn't fail the first request's future for the others
+    private CreateOrderResponse await(String idempotencyKey, CompletableFuture<CreateOrderResponse> response) {
+        try {
+            return response.copy()
+                    .orTimeout(waitTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new IdempotencyKeyInProgressException(idempotencyKey);
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Entry(CreateOrderRequest request, CompletableFuture<CreateOrderResponse> response) {}
+}
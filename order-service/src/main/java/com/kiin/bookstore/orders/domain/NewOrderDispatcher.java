@@ -0,0 +1,90 @@
+package com.kiin.bookstore.orders.domain;
+
+import com.kiin.bookstore.orders.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Push path for new orders: the id is queued once the creating transaction commits and a worker processes it
+// straight away, batching whatever else is queued. Nothing is lost if the queue is full or the instance stops,
+// the order stays NEW and OrderProcessingJob sweeps it up.
+@Component
+class NewOrderDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(NewOrderDispatcher.class);
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+
+    private final OrderService orderService;
+    private final BlockingQueue<Long> queue;
+    private final int chunkSize;
+    private final ExecutorService workers;
+    private final Counter rejectedCounter;
+    private volatile boolean running = true;
+
+    NewOrderDispatcher(OrderService orderService, ApplicationProperties properties, MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.queue = new ArrayBlockingQueue<>(properties.newOrdersQueueCapacity());
+        this.chunkSize = properties.newOrdersChunkSize();
+        this.workers = Executors.newFixedThreadPool(properties.newOrdersWorkers());
+        for (int i = 0; i < properties.newOrdersWorkers(); i++) {
+            workers.execute(this::processLoop);
+        }
+        Gauge.builder("orders.new.dispatch.queue.size", queue, BlockingQueue::size)
+                .description("New orders waiting to be processed")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("orders.new.dispatch.rejected")
+                .description("New orders left for the sweeper because the dispatch queue was full")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener
+    void onOrderPlaced(OrderPlaced event) {
+        if (!queue.offer(event.orderId())) {
+            rejectedCounter.increment();
+            log.warn("New order dispatch queue is full, orderId: {} is left for the sweeper", event.orderId());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void processLoop() {
+        List<Long> ids = new ArrayList<>(chunkSize);
+        while (running) {
+            try {
+                Long first = queue.poll(POLL_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                ids.add(first);
+                queue.drainTo(ids, chunkSize - 1);
+                orderService.processOrders(List.copyOf(ids));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Failed to process {} new orders, they are left for the sweeper", ids.size(), e);
+            } finally {
+                ids.clear();
+            }
+        }
+    }
+
+    record OrderPlaced(Long orderId) {}
+}
@@ -0,0 +1,38 @@
+package com.kiin.bookstore.orders.domain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kiin.bookstore.orders.domain.models.OrderDTO;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Read side of order_archive, the cold store filled by archive_order_partition (see OrderPartitionService)
+@Component
+class OrderArchive {
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    OrderArchive(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    Optional<OrderDTO> findUserOrder(String userName, String orderNumber) {
+        List<String> documents = jdbcTemplate.queryForList(
+                "select document from order_archive where order_number = ? and username = ?",
+                String.class,
+                orderNumber,
+                userName);
+        return documents.stream().findFirst().map(this::toOrder);
+    }
+
+    private OrderDTO toOrder(String document) {
+        try {
+            return objectMapper.readValue(document, OrderDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.kiin.bookstore.orders.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Opaque position of the last order returned, encoded as base64url("<id>:<createdAt>")
+record OrderCursor(LocalDateTime createdAt, Long id) {
+
+    static OrderCursor of(OrderHistoryRow order) {
+        return new OrderCursor(order.createdAt(), order.id());
+    }
+
+    String encode() {
+        String value = id + ":" + createdAt;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static OrderCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(':');
+            if (separator <= 0) {
+                throw InvalidCursorException.forCursor(cursor);
+            }
+            return new OrderCursor(
+                    LocalDateTime.parse(value.substring(separator + 1)), Long.parseLong(value.substring(0, separator)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw InvalidCursorException.forCursor(cursor);
+        }
+    }
+}
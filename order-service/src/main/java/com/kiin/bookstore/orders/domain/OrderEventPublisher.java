@@ -5,36 +5,104 @@ import com.kiin.bookstore.orders.domain.models.OrderCancelledEvent;
 import com.kiin.bookstore.orders.domain.models.OrderCreatedEvent;
 import com.kiin.bookstore.orders.domain.models.OrderDeliveredEvent;
 import com.kiin.bookstore.orders.domain.models.OrderErrorEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Component;
 
 @Component
 class OrderEventPublisher {
+    private static final Logger log = LoggerFactory.getLogger(OrderEventPublisher.class);
+
     private final RabbitTemplate rabbitTemplate;
     private final ApplicationProperties properties;
+    private final boolean publisherConfirms;
+    private final Semaphore inFlight;
+    private final Timer confirmLatency;
 
-    OrderEventPublisher(RabbitTemplate rabbitTemplate, ApplicationProperties properties) {
+    OrderEventPublisher(RabbitTemplate rabbitTemplate, ApplicationProperties properties, MeterRegistry meterRegistry) {
         this.rabbitTemplate = rabbitTemplate;
         this.properties = properties;
+        this.publisherConfirms = rabbitTemplate.getConnectionFactory().isPublisherConfirms();
+        this.inFlight = new Semaphore(properties.publisherConfirmWindow());
+        Gauge.builder(
+                        "orders.events.publisher.in-flight",
+                        inFlight,
+                        s -> properties.publisherConfirmWindow() - s.availablePermits())
+                .description("Order events sent to RabbitMQ and still waiting for a publisher confirm")
+                .register(meterRegistry);
+        this.confirmLatency = Timer.builder("orders.events.publisher.confirm.latency")
+                .description("Time between sending an order event and receiving its publisher confirm")
+                .register(meterRegistry);
+        if (!publisherConfirms) {
+            log.warn("Publisher confirms are disabled, order events are published without broker acknowledgement");
+        }
     }
 
-    public void publish(OrderCreatedEvent event) {
-        this.send(properties.newOrdersQueue(), event);
+    public CompletableFuture<Boolean> publish(OrderCreatedEvent event) {
+        return this.send(properties.newOrdersQueue(), event.eventId(), event);
     }
 
-    public void publish(OrderDeliveredEvent event) {
-        this.send(properties.deliveredOrdersQueue(), event);
+    public CompletableFuture<Boolean> publish(OrderDeliveredEvent event) {
+        return this.send(properties.deliveredOrdersQueue(), event.eventId(), event);
     }
 
-    public void publish(OrderCancelledEvent event) {
-        this.send(properties.cancelledOrdersQueue(), event);
+    public CompletableFuture<Boolean> publish(OrderCancelledEvent event) {
+        return this.send(properties.cancelledOrdersQueue(), event.eventId(), event);
     }
 
-    public void publish(OrderErrorEvent event) {
-        this.send(properties.errorOrdersQueue(), event);
+    public CompletableFuture<Boolean> publish(OrderErrorEvent event) {
+        return this.send(properties.errorOrdersQueue(), event.eventId(), event);
     }
 
-    private void send(String routingKey, Object payload) {
-        rabbitTemplate.convertAndSend(properties.orderEventsExchange(), routingKey, payload);
+    // Completes with true once the broker has acked the message and routed it to a queue;
+    // at most publisherConfirmWindow sends are in flight
+    private CompletableFuture<Boolean> send(String routingKey, String eventId, Object payload) {
+        if (!publisherConfirms) {
+            rabbitTemplate.convertAndSend(properties.orderEventsExchange(), routingKey, payload);
+            return CompletableFuture.completedFuture(true);
+        }
+        inFlight.acquireUninterruptibly();
+        long startTime = System.nanoTime();
+        CorrelationData correlationData = new CorrelationData(eventId);
+        try {
+            rabbitTemplate.convertAndSend(properties.orderEventsExchange(), routingKey, payload, correlationData);
+        } catch (AmqpException e) {
+            inFlight.release();
+            throw e;
+        }
+        return correlationData
+                .getFuture()
+                .orTimeout(properties.publisherConfirmTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .handle((confirm, e) -> {
+                    inFlight.release();
+                    confirmLatency.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+                    if (e != null) {
+                        log.warn("No publisher confirm received for eventId: {}, Error: {}", eventId, e.toString());
+                        return false;
+                    }
+                    if (!confirm.isAck()) {
+                        log.warn("Broker nacked eventId: {}, Reason: {}", eventId, confirm.getReason());
+                        return false;
+                    }
+                    // The broker also acks a mandatory message that no queue is bound for, after returning it
+                    if (correlationData.getReturned() != null) {
+                        log.warn(
+                                "No queue bound for eventId: {}, routing key: {}, Reason: {}",
+                                eventId,
+                                routingKey,
+                                correlationData.getReturned().getReplyText());
+                        return false;
+                    }
+                    return true;
+                });
     }
 }
@@ -1,5 +1,49 @@
 package com.kiin.bookstore.orders.domain;
 
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
-interface OrderEventRepository extends JpaRepository<OrderEventEntity, Long> {}
+interface OrderEventRepository extends JpaRepository<OrderEventEntity, Long> {
+
+    // Rows already claimed by another instance are skipped, so relays can drain the outbox in parallel
+    @Query(
+            value =
+                    """
+            select * from order_events
+            order by created_at, id
+            limit :batchSize
+            for update skip locked
+            """,
+            nativeQuery = true)
+    List<OrderEventEntity> findNextBatchForPublishing(int batchSize);
+
+    @Modifying
+    @Query(
+            value =
+                    """
+            update order_events
+            set publish_attempts = publish_attempts + 1, updated_at = now()
+            where id in (:ids)
+            """,
+            nativeQuery = true)
+    int incrementPublishAttempts(Collection<Long> ids);
+
+    // Moves the events that used up their attempts out of the outbox in one statement
+    @Modifying
+    @Query(
+            value =
+                    """
+            with parked as (
+                delete from order_events
+                where id in (:ids) and publish_attempts >= :maxAttempts
+                returning id, order_number, event_id, event_type, payload, created_at, publish_attempts
+            )
+            insert into order_events_parked (id, order_number, event_id, event_type, payload, created_at, publish_attempts)
+            select id, order_number, event_id, event_type, payload, created_at, publish_attempts from parked
+            """,
+            nativeQuery = true)
+    int parkEvents(Collection<Long> ids, int maxAttempts);
+}
@@ -2,109 +2,207 @@ package com.kiin.bookstore.orders.domain;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kiin.bookstore.orders.ApplicationProperties;
 import com.kiin.bookstore.orders.domain.models.OrderCancelledEvent;
 import com.kiin.bookstore.orders.domain.models.OrderCreatedEvent;
 import com.kiin.bookstore.orders.domain.models.OrderDeliveredEvent;
 import com.kiin.bookstore.orders.domain.models.OrderErrorEvent;
 import com.kiin.bookstore.orders.domain.models.OrderEventType;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Sort;
+import org.springframework.amqp.AmqpException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @Transactional
 public class OrderEventService {
     private static final Logger log = LoggerFactory.getLogger(OrderEventService.class);
+    private static final String INSERT_ORDER_EVENT_SQL =
+            """
+        insert into order_events (order_number, event_id, event_type, payload, created_at)
+        values (?, ?, ?, ?, ?)
+        """;
 
     private final OrderEventRepository orderEventRepository;
     private final com.kiin.bookstore.orders.domain.OrderEventPublisher orderEventPublisher;
     private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int maxAttempts;
 
     OrderEventService(
             OrderEventRepository orderEventRepository,
             OrderEventPublisher orderEventPublisher,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            TransactionTemplate transactionTemplate,
+            JdbcTemplate jdbcTemplate,
+            ApplicationEventPublisher eventPublisher,
+            ApplicationProperties properties) {
         this.orderEventRepository = orderEventRepository;
         this.orderEventPublisher = orderEventPublisher;
         this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = properties.publishOrderEventsBatchSize();
+        this.maxAttempts = properties.publishOrderEventsMaxAttempts();
     }
 
     void save(OrderCreatedEvent event) {
-        OrderEventEntity orderEvent = new OrderEventEntity();
-        orderEvent.setEventId(event.eventId());
-        orderEvent.setEventType(OrderEventType.ORDER_CREATED);
-        orderEvent.setOrderNumber(event.orderNumber());
-        orderEvent.setCreatedAt(event.createdAt());
-        orderEvent.setPayload(toJsonPayload(event));
-        this.orderEventRepository.save(orderEvent);
+        this.orderEventRepository.save(toOrderEvent(event));
+        eventPublisher.publishEvent(new OrderEventsSaved());
     }
 
     void save(OrderDeliveredEvent event) {
-        OrderEventEntity orderEvent = new OrderEventEntity();
-        orderEvent.setEventId(event.eventId());
-        orderEvent.setEventType(OrderEventType.ORDER_DELIVERED);
-        orderEvent.setOrderNumber(event.orderNumber());
-        orderEvent.setCreatedAt(event.createdAt());
-        orderEvent.setPayload(toJsonPayload(event));
-        this.orderEventRepository.save(orderEvent);
+        this.orderEventRepository.save(toOrderEvent(event));
+        eventPublisher.publishEvent(new OrderEventsSaved());
     }
 
     void save(OrderCancelledEvent event) {
-        OrderEventEntity orderEvent = new OrderEventEntity();
-        orderEvent.setEventId(event.eventId());
-        orderEvent.setEventType(OrderEventType.ORDER_CANCELLED);
-        orderEvent.setOrderNumber(event.orderNumber());
-        orderEvent.setCreatedAt(event.createdAt());
-        orderEvent.setPayload(toJsonPayload(event));
-        this.orderEventRepository.save(orderEvent);
+        this.orderEventRepository.save(toOrderEvent(event));
+        eventPublisher.publishEvent(new OrderEventsSaved());
     }
 
     void save(OrderErrorEvent event) {
+        this.orderEventRepository.save(toOrderEvent(event));
+        eventPublisher.publishEvent(new OrderEventsSaved());
+    }
+
+    // Inserts the events with JDBC batching, used by the bulk order processing
+    void saveAll(List<?> events) {
+        List<OrderEventEntity> orderEvents =
+                events.stream().map(this::toOrderEvent).toList();
+        jdbcTemplate.batchUpdate(INSERT_ORDER_EVENT_SQL, orderEvents, batchSize, (ps, orderEvent) -> {
+            ps.setString(1, orderEvent.getOrderNumber());
+            ps.setString(2, orderEvent.getEventId());
+            ps.setString(3, orderEvent.getEventType().name());
+            ps.setString(4, orderEvent.getPayload());
+            ps.setTimestamp(5, Timestamp.valueOf(orderEvent.getCreatedAt()));
+        });
+        eventPublisher.publishEvent(new OrderEventsSaved());
+    }
+
+    private OrderEventEntity toOrderEvent(Object event) {
         OrderEventEntity orderEvent = new OrderEventEntity();
-        orderEvent.setEventId(event.eventId());
-        orderEvent.setEventType(OrderEventType.ORDER_PROCESSING_FAILED);
-        orderEvent.setOrderNumber(event.orderNumber());
-        orderEvent.setCreatedAt(event.createdAt());
+        switch (event) {
+            case OrderCreatedEvent e -> {
+                orderEvent.setEventId(e.eventId());
+                orderEvent.setEventType(OrderEventType.ORDER_CREATED);
+                orderEvent.setOrderNumber(e.orderNumber());
+                orderEvent.setCreatedAt(e.createdAt());
+            }
+            case OrderDeliveredEvent e -> {
+                orderEvent.setEventId(e.eventId());
+                orderEvent.setEventType(OrderEventType.ORDER_DELIVERED);
+                orderEvent.setOrderNumber(e.orderNumber());
+                orderEvent.setCreatedAt(e.createdAt());
+            }
+            case OrderCancelledEvent e -> {
+                orderEvent.setEventId(e.eventId());
+                orderEvent.setEventType(OrderEventType.ORDER_CANCELLED);
+                orderEvent.setOrderNumber(e.orderNumber());
+                orderEvent.setCreatedAt(e.createdAt());
+            }
+            case OrderErrorEvent e -> {
+                orderEvent.setEventId(e.eventId());
+                orderEvent.setEventType(OrderEventType.ORDER_PROCESSING_FAILED);
+                orderEvent.setOrderNumber(e.orderNumber());
+                orderEvent.setCreatedAt(e.createdAt());
+            }
+            default -> throw new IllegalArgumentException("Unsupported order event: " + event.getClass());
+        }
         orderEvent.setPayload(toJsonPayload(event));
-        this.orderEventRepository.save(orderEvent);
+        return orderEvent;
     }
 
-    public void publishOrderEvents() {
-        Sort sort = Sort.by("createdAt").ascending();
-        List<OrderEventEntity> events = orderEventRepository.findAll(sort);
-        log.info("Found {} Order Events to be published", events.size());
+    // Each batch commits on its own, so a large backlog never holds one long-running transaction
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int publishOrderEvents() {
+        int publishedCount = 0;
+        int batchCount;
+        do {
+            Integer count = transactionTemplate.execute(status -> this.publishNextBatch());
+            batchCount = count == null ? 0 : count;
+            publishedCount += batchCount;
+        } while (batchCount == batchSize);
+        if (publishedCount > 0) {
+            log.info("Published {} Order Events", publishedCount);
+        }
+        return publishedCount;
+    }
+
+    private int publishNextBatch() {
+        List<OrderEventEntity> events = orderEventRepository.findNextBatchForPublishing(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+        // Send the whole batch before waiting, so confirms are pipelined instead of one round trip per event
+        Map<Long, CompletableFuture<Boolean>> confirms = new LinkedHashMap<>();
         for (OrderEventEntity event : events) {
-            this.publishEvent(event);
-            orderEventRepository.delete(event);
+            confirms.put(event.getId(), this.tryPublishEvent(event));
+        }
+        List<Long> ackedIds = new ArrayList<>();
+        List<Long> failedIds = new ArrayList<>();
+        confirms.forEach((id, confirm) -> (confirm.join() ? ackedIds : failedIds).add(id));
+        orderEventRepository.deleteAllByIdInBatch(ackedIds);
+        if (!failedIds.isEmpty()) {
+            // Failed events stay in the outbox and are retried on the next run, until they run out of attempts
+            log.warn("{} of {} Order Events were not confirmed by the broker", failedIds.size(), events.size());
+            orderEventRepository.incrementPublishAttempts(failedIds);
+            int parked = orderEventRepository.parkEvents(failedIds, maxAttempts);
+            if (parked > 0) {
+                log.error("Moved {} Order Events to order_events_parked after {} failed attempts", parked, maxAttempts);
+            }
+        }
+        return ackedIds.size();
+    }
+
+    // An event that can't even be sent, e.g. an unreadable payload, counts as a failed attempt like a nack.
+    // A broker that can't be reached is not the event's fault, so it aborts the batch without counting attempts.
+    private CompletableFuture<Boolean> tryPublishEvent(OrderEventEntity event) {
+        try {
+            return this.publishEvent(event);
+        } catch (AmqpException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish Order Event with eventId: {}, Error: {}", event.getEventId(), e.toString());
+            return CompletableFuture.completedFuture(false);
         }
     }
 
-    private void publishEvent(OrderEventEntity event) {
+    private CompletableFuture<Boolean> publishEvent(OrderEventEntity event) {
         OrderEventType eventType = event.getEventType();
         switch (eventType) {
             case ORDER_CREATED:
                 OrderCreatedEvent orderCreatedEvent = fromJsonPayload(event.getPayload(), OrderCreatedEvent.class);
-                orderEventPublisher.publish(orderCreatedEvent);
-                break;
+                return orderEventPublisher.publish(orderCreatedEvent);
             case ORDER_DELIVERED:
                 OrderDeliveredEvent orderDeliveredEvent =
                         fromJsonPayload(event.getPayload(), OrderDeliveredEvent.class);
-                orderEventPublisher.publish(orderDeliveredEvent);
-                break;
+                return orderEventPublisher.publish(orderDeliveredEvent);
             case ORDER_CANCELLED:
                 OrderCancelledEvent orderCancelledEvent =
                         fromJsonPayload(event.getPayload(), OrderCancelledEvent.class);
-                orderEventPublisher.publish(orderCancelledEvent);
-                break;
+                return orderEventPublisher.publish(orderCancelledEvent);
             case ORDER_PROCESSING_FAILED:
                 OrderErrorEvent orderErrorEvent = fromJsonPayload(event.getPayload(), OrderErrorEvent.class);
-                orderEventPublisher.publish(orderErrorEvent);
-                break;
+                return orderEventPublisher.publish(orderErrorEvent);
             default:
                 log.warn("Unsupported OrderEventType: {}", eventType);
+                return CompletableFuture.completedFuture(true);
         }
     }
 
@@ -0,0 +1,4 @@
+package com.kiin.bookstore.orders.domain;
+
+// Published by OrderEventService, delivered to listeners once the outbox rows are committed
+public record OrderEventsSaved() {}
@@ -0,0 +1,7 @@
+package com.kiin.bookstore.orders.domain;
+
+import com.kiin.bookstore.orders.domain.models.OrderStatus;
+import java.time.LocalDateTime;
+
+// Only the columns of orders_username_created_at_id_idx, so a history page is an index-only scan
+record OrderHistoryRow(String orderNumber, OrderStatus status, LocalDateTime createdAt, Long id) {}
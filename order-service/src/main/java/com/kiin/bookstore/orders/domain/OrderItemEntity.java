@@ -7,9 +7,11 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
 import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "order_items")
@@ -35,6 +37,10 @@ class OrderItemEntity {
     @JoinColumn(name = "order_id")
     private OrderEntity order;
 
+    // Partition key, always the created_at of the order so both rows are archived together
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
     public Long getId() {
         return id;
     }
@@ -82,4 +88,13 @@ class OrderItemEntity {
     public void setOrder(OrderEntity order) {
         this.order = order;
     }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @PrePersist
+    void onPersist() {
+        this.createdAt = order.getCreatedAt();
+    }
 }
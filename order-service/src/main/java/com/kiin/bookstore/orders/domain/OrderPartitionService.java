@@ -0,0 +1,92 @@
+package com.kiin.bookstore.orders.domain;
+
+import com.kiin.bookstore.orders.ApplicationProperties;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Keeps the monthly partitions of orders and order_items in shape: creates the coming months and moves months
+// older than orderRetentionMonths into order_archive. The DDL lives in the create_order_partition and
+// archive_order_partition functions (V8 migration).
+@Service
+public class OrderPartitionService {
+    private static final Logger log = LoggerFactory.getLogger(OrderPartitionService.class);
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'orders_y'yyyy'm'MM");
+    private static final Pattern PARTITION_NAME = Pattern.compile("orders_y\\d{4}m\\d{2}");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int partitionsAhead;
+    private final int retentionMonths;
+
+    OrderPartitionService(
+            JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, ApplicationProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.partitionsAhead = properties.orderPartitionsAhead();
+        this.retentionMonths = properties.orderRetentionMonths();
+    }
+
+    // There is no default partition, an insert into a month without one fails. Instances starting together
+    // queue on the advisory lock instead of racing on the same DDL, so any error here is a real one.
+    @Transactional
+    public void createPartitions() {
+        jdbcTemplate.query("select pg_advisory_xact_lock(hashtext('create_order_partition'))", rs -> null);
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= partitionsAhead; i++) {
+            this.createPartition(current.plusMonths(i));
+        }
+    }
+
+    // Each month is archived in its own transaction, a failure leaves that month attached and is retried next run
+    // without holding back the months after it
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void archiveExpiredPartitions() {
+        YearMonth oldestRetained = YearMonth.now().minusMonths(retentionMonths);
+        for (YearMonth month : this.findPartitionMonths()) {
+            if (month.isBefore(oldestRetained)) {
+                try {
+                    Integer archived = transactionTemplate.execute(status -> this.archivePartition(month));
+                    log.info("Archived {} orders of {} and dropped their partitions", archived, month);
+                } catch (RuntimeException e) {
+                    log.error("Failed to archive order partitions of {}", month, e);
+                }
+            }
+        }
+    }
+
+    void createPartition(YearMonth month) {
+        jdbcTemplate.query("select create_order_partition(?)", rs -> null, month.atDay(1));
+    }
+
+    int archivePartition(YearMonth month) {
+        Integer archived =
+                jdbcTemplate.queryForObject("select archive_order_partition(?)", Integer.class, month.atDay(1));
+        return archived == null ? 0 : archived;
+    }
+
+    // Only the monthly partitions created by create_order_partition, anything else attached by hand is left alone
+    List<YearMonth> findPartitionMonths() {
+        return jdbcTemplate
+                .queryForList(
+                        """
+                        select c.relname
+                        from pg_inherits i join pg_class c on c.oid = i.inhrelid
+                        where i.inhparent = 'orders'::regclass
+                        """,
+                        String.class)
+                .stream()
+                .filter(name -> PARTITION_NAME.matcher(name).matches())
+                .map(name -> YearMonth.parse(name, PARTITION_SUFFIX))
+                .sorted()
+                .toList();
+    }
+}
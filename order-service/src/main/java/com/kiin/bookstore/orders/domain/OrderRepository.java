@@ -2,30 +2,107 @@ package com.kiin.bookstore.orders.domain;
 
 import com.kiin.bookstore.orders.domain.models.OrderStatus;
 import com.kiin.bookstore.orders.domain.models.OrderSummary;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 interface OrderRepository extends JpaRepository<com.kiin.bookstore.orders.domain.OrderEntity, Long> {
-    List<com.kiin.bookstore.orders.domain.OrderEntity> findByStatus(OrderStatus status);
 
     Optional<com.kiin.bookstore.orders.domain.OrderEntity> findByOrderNumber(String orderNumber);
 
-    default void updateOrderStatus(String orderNumber, OrderStatus status) {
-        com.kiin.bookstore.orders.domain.OrderEntity order =
-                this.findByOrderNumber(orderNumber).orElseThrow();
-        order.setStatus(status);
-        this.save(order);
-    }
+    // Keyset page of ids, so the processor never holds every NEW order in memory at once.
+    // The status is a literal so the query matches the predicate of the partial index orders_new_id_idx,
+    // which a bound parameter would not under a generic plan.
+    // The processing queries take a lower bound on created_at so only recent partitions are scanned.
+    @Query(
+            """
+        select o.id
+        from OrderEntity o
+        where o.status = com.kiin.bookstore.orders.domain.models.OrderStatus.NEW
+          and o.createdAt >= :since and o.id > :afterId
+        order by o.id
+        """)
+    List<Long> findNewOrderIdsAfter(LocalDateTime since, Long afterId, Limit limit);
+
+    // NEW orders the processing queries no longer reach, only the partial indexes of old partitions are read
+    @Query(
+            """
+        select count(o)
+        from OrderEntity o
+        where o.status = com.kiin.bookstore.orders.domain.models.OrderStatus.NEW
+          and o.createdAt < :since
+        """)
+    long countNewOrdersBefore(LocalDateTime since);
 
+    @Query(
+            """
+        select distinct o
+        from OrderEntity o left join fetch o.items
+        where o.id in :ids and o.status = :status and o.createdAt >= :since
+        """)
+    List<OrderEntity> findByIdInAndStatus(Collection<Long> ids, OrderStatus status, LocalDateTime since);
+
+    // Rows locked by another worker or instance are skipped, so the dispatcher and the sweeper never process
+    // the same order twice
+    @Query(
+            value =
+                    """
+            select id from orders
+            where id in (:ids) and status = 'NEW' and created_at >= :since
+            for update skip locked
+            """,
+            nativeQuery = true)
+    List<Long> lockNewOrders(Collection<Long> ids, LocalDateTime since);
+
+    // One statement per target status instead of a select and a dirty-checked update per order
+    @Modifying(flushAutomatically = true)
+    @Query(
+            """
+        update OrderEntity o
+        set o.status = :to
+        where o.id in :ids and o.status = :from and o.createdAt >= :since
+        """)
+    int updateStatus(Collection<Long> ids, OrderStatus from, OrderStatus to, LocalDateTime since);
+
+    // Served by orders_username_created_at_id_idx, rows are fetched from the cursor in chunks
     @Query(
             """
         select new com.kiin.bookstore.orders.domain.models.OrderSummary(o.orderNumber, o.status)
         from OrderEntity o
-        where o.userName = :userName
+        where o.userName = :userName and (:status is null or o.status = :status)
+        order by o.createdAt desc, o.id desc
+        """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<OrderSummary> streamByUserName(String userName, OrderStatus status);
+
+    @Query(
+            """
+        select new com.kiin.bookstore.orders.domain.OrderHistoryRow(o.orderNumber, o.status, o.createdAt, o.id)
+        from OrderEntity o
+        where o.userName = :userName and (:status is null or o.status = :status)
+        order by o.createdAt desc, o.id desc
+        """)
+    List<OrderHistoryRow> findFirstHistoryPage(String userName, OrderStatus status, Limit limit);
+
+    @Query(
+            """
+        select new com.kiin.bookstore.orders.domain.OrderHistoryRow(o.orderNumber, o.status, o.createdAt, o.id)
+        from OrderEntity o
+        where o.userName = :userName and (:status is null or o.status = :status)
+          and (o.createdAt < :createdAt or (o.createdAt = :createdAt and o.id < :id))
+        order by o.createdAt desc, o.id desc
         """)
-    List<OrderSummary> findByUserName(String userName);
+    List<OrderHistoryRow> findHistoryPageBefore(
+            String userName, OrderStatus status, LocalDateTime createdAt, Long id, Limit limit);
 
     @Query(
             """
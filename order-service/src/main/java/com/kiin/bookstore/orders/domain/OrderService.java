@@ -1,32 +1,87 @@
 package com.kiin.bookstore.orders.domain;
 
+import com.kiin.bookstore.orders.ApplicationProperties;
 import com.kiin.bookstore.orders.domain.models.CreateOrderRequest;
 import com.kiin.bookstore.orders.domain.models.CreateOrderResponse;
+import com.kiin.bookstore.orders.domain.models.CursorResult;
 import com.kiin.bookstore.orders.domain.models.OrderCreatedEvent;
 import com.kiin.bookstore.orders.domain.models.OrderDTO;
 import com.kiin.bookstore.orders.domain.models.OrderStatus;
 import com.kiin.bookstore.orders.domain.models.OrderSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @Transactional
 public class OrderService {
     private static final Logger log = LoggerFactory.getLogger(OrderService.class);
+    private static final int MAX_PAGE_SIZE = 100;
     private static final List<String> DELIVERY_ALLOWED_COUNTRIES = List.of("INDIA", "USA", "GERMANY", "UK", "VN");
 
     private final OrderRepository orderRepository;
     private final OrderValidator orderValidator;
     private final OrderEventService orderEventService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    OrderService(OrderRepository orderRepository, OrderValidator orderValidator, OrderEventService orderEventService) {
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService processingExecutor;
+    private final OrderArchive orderArchive;
+    private final int fetchSize;
+    private final int chunkSize;
+    private final Duration newOrdersMaxAge;
+    private final AtomicLong staleNewOrders = new AtomicLong();
+
+    OrderService(
+            OrderRepository orderRepository,
+            OrderValidator orderValidator,
+            OrderEventService orderEventService,
+            ApplicationEventPublisher eventPublisher,
+            OrderArchive orderArchive,
+            TransactionTemplate transactionTemplate,
+            ApplicationProperties properties,
+            MeterRegistry meterRegistry) {
         this.orderRepository = orderRepository;
         this.orderValidator = orderValidator;
         this.orderEventService = orderEventService;
+        this.eventPublisher = eventPublisher;
+        this.orderArchive = orderArchive;
+        this.transactionTemplate = transactionTemplate;
+        this.processingExecutor = Executors.newFixedThreadPool(properties.newOrdersWorkers());
+        this.fetchSize = properties.newOrdersFetchSize();
+        this.chunkSize = properties.newOrdersChunkSize();
+        this.newOrdersMaxAge = properties.newOrdersMaxAge();
+        Gauge.builder("orders.new.stale", staleNewOrders, AtomicLong::get)
+                .description("NEW orders older than newOrdersMaxAge, which are no longer processed automatically")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        processingExecutor.shutdown();
     }
 
     public CreateOrderResponse createOrder(String userName, CreateOrderRequest request) {
@@ -37,44 +92,154 @@ public class OrderService {
         log.info("Created Order with orderNumber={}", savedOrder.getOrderNumber());
         OrderCreatedEvent orderCreatedEvent = OrderEventMapper.buildOrderCreatedEvent(savedOrder);
         orderEventService.save(orderCreatedEvent);
+        eventPublisher.publishEvent(new NewOrderDispatcher.OrderPlaced(savedOrder.getId()));
         return new CreateOrderResponse(savedOrder.getOrderNumber());
     }
 
-    public List<OrderSummary> findOrders(String userName) {
-        return orderRepository.findByUserName(userName);
+    // Hands each summary to the consumer while the result set is read, so the history is never held in memory
+    @Transactional(readOnly = true)
+    public void streamOrders(String userName, OrderStatus status, Consumer<OrderSummary> consumer) {
+        try (Stream<OrderSummary> orders = orderRepository.streamByUserName(userName, status)) {
+            orders.forEach(consumer);
+        }
     }
 
+    // Keyset pagination, newest first: seeks past the cursor on (created_at, id)
+    @Transactional(readOnly = true)
+    public CursorResult<OrderSummary> findOrders(String userName, OrderStatus status, String after, int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        List<OrderHistoryRow> orders;
+        if (after == null || after.isBlank()) {
+            orders = orderRepository.findFirstHistoryPage(userName, status, Limit.of(pageSize + 1));
+        } else {
+            OrderCursor cursor = OrderCursor.decode(after);
+            orders = orderRepository.findHistoryPageBefore(
+                    userName, status, cursor.createdAt(), cursor.id(), Limit.of(pageSize + 1));
+        }
+        boolean hasNext = orders.size() > pageSize;
+        if (hasNext) {
+            orders = orders.subList(0, pageSize);
+        }
+        String nextCursor = hasNext ? OrderCursor.of(orders.getLast()).encode() : null;
+        return new CursorResult<>(
+                orders.stream()
+                        .map(order -> new OrderSummary(order.orderNumber(), order.status()))
+                        .toList(),
+                nextCursor,
+                hasNext);
+    }
+
+    // Orders of archived partitions are no longer in the orders table, they are read back from the archive
     public Optional<OrderDTO> findUserOrder(String userName, String orderNumber) {
         return orderRepository
                 .findByUserNameAndOrderNumber(userName, orderNumber)
-                .map(OrderMapper::convertToDTO);
+                .map(OrderMapper::convertToDTO)
+                .or(() -> orderArchive.findUserOrder(userName, orderNumber));
     }
 
+    // Sweeps the NEW orders the dispatcher did not get to: pages through them by id and fans chunks out to the
+    // worker pool, each chunk commits on its own so one failure doesn't roll back the whole run
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void processNewOrders() {
-        List<OrderEntity> orders = orderRepository.findByStatus(OrderStatus.NEW);
-        log.info("Found {} new orders to process", orders.size());
-        for (OrderEntity order : orders) {
-            this.process(order);
+        long startNanos = System.nanoTime();
+        LocalDateTime since = this.newOrdersSince();
+        AtomicInteger processed = new AtomicInteger();
+        AtomicInteger failedChunks = new AtomicInteger();
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            ids = orderRepository.findNewOrderIdsAfter(since, afterId, Limit.of(fetchSize));
+            List<CompletableFuture<Void>> chunks = new ArrayList<>();
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                chunks.add(CompletableFuture.runAsync(
+                                () -> processed.addAndGet(this.processChunk(chunk, since)), processingExecutor)
+                        .exceptionally(e -> {
+                            // Orders of a failed chunk stay NEW and are picked up by the next run
+                            log.error("Failed to process chunk of {} new orders", chunk.size(), e);
+                            failedChunks.incrementAndGet();
+                            return null;
+                        }));
+            }
+            CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+            if (!ids.isEmpty()) {
+                afterId = ids.getLast();
+            }
+        } while (ids.size() == fetchSize);
+
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        log.info(
+                "Processed {} new orders in {} ms ({} orders/sec), {} chunks failed",
+                processed.get(),
+                elapsedMillis,
+                String.format("%.1f", processed.get() * 1000.0 / elapsedMillis),
+                failedChunks.get());
+        this.checkStaleNewOrders(since);
+    }
+
+    // The sweep is bounded by newOrdersMaxAge, so whatever is still NEW below that bound is reported instead of
+    // being left behind unnoticed
+    private void checkStaleNewOrders(LocalDateTime since) {
+        long staleCount = orderRepository.countNewOrdersBefore(since);
+        staleNewOrders.set(staleCount);
+        if (staleCount > 0) {
+            log.warn(
+                    "{} NEW orders were created before {} and are no longer processed automatically",
+                    staleCount,
+                    since);
         }
     }
 
-    private void process(OrderEntity order) {
+    // Called by NewOrderDispatcher with the ids of orders that were just created
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    int processOrders(List<Long> ids) {
+        return this.processChunk(ids, this.newOrdersSince());
+    }
+
+    // NEW orders older than newOrdersMaxAge are not picked up, so processing never reaches old partitions.
+    // They are counted by checkStaleNewOrders and exposed as orders.new.stale
+    private LocalDateTime newOrdersSince() {
+        return LocalDateTime.now().minus(newOrdersMaxAge);
+    }
+
+    private int processChunk(List<Long> ids, LocalDateTime since) {
+        Integer count = transactionTemplate.execute(status -> {
+            // Re-check the status, the orders may have changed since the ids were read
+            List<Long> claimedIds = orderRepository.lockNewOrders(ids, since);
+            if (claimedIds.isEmpty()) {
+                return 0;
+            }
+            List<OrderEntity> orders = orderRepository.findByIdInAndStatus(claimedIds, OrderStatus.NEW, since);
+            Map<OrderStatus, List<Long>> idsByStatus = new EnumMap<>(OrderStatus.class);
+            List<Object> events = new ArrayList<>(orders.size());
+            for (OrderEntity order : orders) {
+                OrderStatus newStatus = this.process(order, events);
+                idsByStatus.computeIfAbsent(newStatus, s -> new ArrayList<>()).add(order.getId());
+            }
+            idsByStatus.forEach(
+                    (newStatus, orderIds) -> orderRepository.updateStatus(orderIds, OrderStatus.NEW, newStatus, since));
+            orderEventService.saveAll(events);
+            return orders.size();
+        });
+        return count == null ? 0 : count;
+    }
+
+    // Decides the new status and collects the matching event, the writes are done per chunk
+    private OrderStatus process(OrderEntity order, List<Object> events) {
         try {
             if (canBeDelivered(order)) {
-                log.info("OrderNumber: {} can be delivered", order.getOrderNumber());
-                orderRepository.updateOrderStatus(order.getOrderNumber(), OrderStatus.DELIVERED);
-                orderEventService.save(OrderEventMapper.buildOrderDeliveredEvent(order));
-
+                log.debug("OrderNumber: {} can be delivered", order.getOrderNumber());
+                events.add(OrderEventMapper.buildOrderDeliveredEvent(order));
+                return OrderStatus.DELIVERED;
             } else {
-                log.info("OrderNumber: {} can not be delivered", order.getOrderNumber());
-                orderRepository.updateOrderStatus(order.getOrderNumber(), OrderStatus.CANCELLED);
-                orderEventService.save(
-                        OrderEventMapper.buildOrderCancelledEvent(order, "Can't deliver to the location"));
+                log.debug("OrderNumber: {} can not be delivered", order.getOrderNumber());
+                events.add(OrderEventMapper.buildOrderCancelledEvent(order, "Can't deliver to the location"));
+                return OrderStatus.CANCELLED;
             }
         } catch (RuntimeException e) {
             log.error("Failed to process Order with orderNumber: {}", order.getOrderNumber(), e);
-            orderRepository.updateOrderStatus(order.getOrderNumber(), OrderStatus.ERROR);
-            orderEventService.save(OrderEventMapper.buildOrderErrorEvent(order, e.getMessage()));
+            events.add(OrderEventMapper.buildOrderErrorEvent(order, e.getMessage()));
+            return OrderStatus.ERROR;
         }
     }
 
@@ -1,10 +1,12 @@
 package com.kiin.bookstore.orders.domain;
 
 import com.kiin.bookstore.orders.clients.catalog.Product;
-import com.kiin.bookstore.orders.clients.catalog.ProductServiceClient;
+import com.kiin.bookstore.orders.clients.catalog.ProductCache;
 import com.kiin.bookstore.orders.domain.models.CreateOrderRequest;
 import com.kiin.bookstore.orders.domain.models.OrderItem;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -13,17 +15,21 @@ import org.springframework.stereotype.Component;
 class OrderValidator {
     private static final Logger log = LoggerFactory.getLogger(OrderValidator.class);
 
-    private final ProductServiceClient client;
+    private final ProductCache productCache;
 
-    OrderValidator(ProductServiceClient client) {
-        this.client = client;
+    OrderValidator(ProductCache productCache) {
+        this.productCache = productCache;
     }
 
     void validate(CreateOrderRequest request) {
         Set<OrderItem> items = request.items();
+        Set<String> codes = items.stream().map(OrderItem::code).collect(Collectors.toSet());
+        Map<String, Product> products = productCache.getProductsByCodes(codes);
         for (OrderItem item : items) {
-            Product product = client.getProductByCode(item.code())
-                    .orElseThrow(() -> new InvalidOrderException("Invalid Product code: " + item.code()));
+            Product product = products.get(item.code());
+            if (product == null) {
+                throw new InvalidOrderException("Invalid Product code: " + item.code());
+            }
             if (item.price().compareTo(product.price()) != 0) {
                 log.error(
                         "Product price not matching. Actual price:{}, received price:{}",
@@ -0,0 +1,129 @@
+package com.kiin.bookstore.orders.jobs;
+
+import com.kiin.bookstore.orders.ApplicationProperties;
+import com.kiin.bookstore.orders.domain.OrderEventService;
+import com.kiin.bookstore.orders.domain.OrderEventsSaved;
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Relays the outbox as soon as events are committed instead of on a fixed cron. Wake-ups come from the
+// after-commit hook on this instance and from Postgres NOTIFY (order_events_notify trigger) for the others.
+// Without wake-ups it still polls, backing off from publishOrderEventsMinInterval to publishOrderEventsMaxInterval.
+@Component
+class OrderEventsRelay {
+    private static final Logger log = LoggerFactory.getLogger(OrderEventsRelay.class);
+    private static final String CHANNEL = "order_events";
+    private static final Duration LISTEN_TIMEOUT = Duration.ofSeconds(10);
+
+    private final OrderEventService orderEventService;
+    private final DataSource dataSource;
+    private final Duration minInterval;
+    private final Duration maxInterval;
+    private final boolean listenNotify;
+    private final Semaphore wakeUps = new Semaphore(0);
+    private final ExecutorService threads = Executors.newFixedThreadPool(2);
+    private volatile boolean running = true;
+
+    OrderEventsRelay(OrderEventService orderEventService, DataSource dataSource, ApplicationProperties properties) {
+        this.orderEventService = orderEventService;
+        this.dataSource = dataSource;
+        this.minInterval = properties.publishOrderEventsMinInterval();
+        this.maxInterval = properties.publishOrderEventsMaxInterval();
+        this.listenNotify = properties.publishOrderEventsListenNotify();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        threads.execute(this::relayLoop);
+        if (listenNotify) {
+            threads.execute(this::listenLoop);
+        }
+    }
+
+    @TransactionalEventListener
+    void onOrderEventsSaved(OrderEventsSaved event) {
+        this.wakeUp();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        threads.shutdownNow();
+        threads.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    void wakeUp() {
+        // One pending permit is enough, the relay drains everything committed before it runs
+        if (wakeUps.availablePermits() == 0) {
+            wakeUps.release();
+        }
+    }
+
+    private void relayLoop() {
+        Duration idleInterval = minInterval;
+        while (running) {
+            try {
+                wakeUps.tryAcquire(idleInterval.toMillis(), TimeUnit.MILLISECONDS);
+                wakeUps.drainPermits();
+                int published = orderEventService.publishOrderEvents();
+                idleInterval = published > 0 ? minInterval : min(idleInterval.multipliedBy(2), maxInterval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Failed to publish Order Events", e);
+                idleInterval = maxInterval;
+            }
+        }
+    }
+
+    // Holds one pooled connection for LISTEN; reconnects after errors so a database failover is survived
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection();
+                    Statement statement = connection.createStatement()) {
+                statement.execute("listen " + CHANNEL);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                log.info("Listening for Order Events notifications on channel: {}", CHANNEL);
+                while (running) {
+                    var notifications = pgConnection.getNotifications((int) LISTEN_TIMEOUT.toMillis());
+                    if (notifications != null && notifications.length > 0) {
+                        this.wakeUp();
+                    }
+                }
+                // The connection goes back to the pool, it must not keep receiving notifications
+                statement.execute("unlisten " + CHANNEL);
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Order Events notification listener failed, retrying in {}: {}", maxInterval, e.toString());
+                try {
+                    Thread.sleep(maxInterval);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+}
@@ -0,0 +1,38 @@
+package com.kiin.bookstore.orders.jobs;
+
+import com.kiin.bookstore.orders.domain.OrderPartitionService;
+import java.time.Instant;
+import net.javacrumbs.shedlock.core.LockAssert;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+class OrderPartitionMaintenanceJob {
+    private static final Logger log = LoggerFactory.getLogger(OrderPartitionMaintenanceJob.class);
+
+    private final OrderPartitionService orderPartitionService;
+
+    OrderPartitionMaintenanceJob(OrderPartitionService orderPartitionService) {
+        this.orderPartitionService = orderPartitionService;
+    }
+
+    // Inserts fail without a partition for the current month, so a failure here stops the application from starting
+    @EventListener(ApplicationReadyEvent.class)
+    void createPartitionsOnStartup() {
+        orderPartitionService.createPartitions();
+    }
+
+    @Scheduled(cron = "${orders.order-partitions-job-cron:0 0 2 * * *}") // chay moi ngay luc 2h
+    @SchedulerLock(name = "maintainOrderPartitions")
+    public void maintainPartitions() {
+        LockAssert.assertLocked();
+        log.info("Maintaining order partitions at {}", Instant.now());
+        orderPartitionService.createPartitions();
+        orderPartitionService.archiveExpiredPartitions();
+    }
+}
@@ -19,6 +19,8 @@ class OrderProcessingJob {
         this.orderService = orderService;
     }
 
+    // New orders are processed right after creation by NewOrderDispatcher, this run only picks up stragglers
+    // (dispatcher queue full, instance stopped before processing, failed chunks)
     @Scheduled(cron = "${orders.new-orders-job-cron}") // chay cronjob moi 5m
     @SchedulerLock(name = "processNewOrders") // lock
     public void processNewOrders() {
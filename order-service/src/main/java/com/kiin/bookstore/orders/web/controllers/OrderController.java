@@ -1,25 +1,36 @@
 package com.kiin.bookstore.orders.web.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kiin.bookstore.orders.domain.IdempotencyKeyStore;
 import com.kiin.bookstore.orders.domain.OrderNotFoundException;
 import com.kiin.bookstore.orders.domain.OrderService;
 import com.kiin.bookstore.orders.domain.SecurityService;
 import com.kiin.bookstore.orders.domain.models.CreateOrderRequest;
 import com.kiin.bookstore.orders.domain.models.CreateOrderResponse;
+import com.kiin.bookstore.orders.domain.models.CursorResult;
 import com.kiin.bookstore.orders.domain.models.OrderDTO;
+import com.kiin.bookstore.orders.domain.models.OrderStatus;
 import com.kiin.bookstore.orders.domain.models.OrderSummary;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -29,25 +40,59 @@ class OrderController {
 
     private final OrderService orderService;
     private final SecurityService securityService;
+    private final IdempotencyKeyStore idempotencyKeyStore;
+    private final ObjectMapper objectMapper;
 
-    OrderController(OrderService orderService, SecurityService securityService) {
+    OrderController(
+            OrderService orderService,
+            SecurityService securityService,
+            IdempotencyKeyStore idempotencyKeyStore,
+            ObjectMapper objectMapper) {
         this.orderService = orderService;
         this.securityService = securityService;
+        this.idempotencyKeyStore = idempotencyKeyStore;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    CreateOrderResponse createOrder(@Valid @RequestBody CreateOrderRequest request) {
+    CreateOrderResponse createOrder(
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody CreateOrderRequest request) {
         String userName = securityService.getLoginUserName();
         log.info("Creating order for user: {}", userName);
-        return orderService.createOrder(userName, request);
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return orderService.createOrder(userName, request);
+        }
+        return idempotencyKeyStore.createOrder(
+                userName, idempotencyKey, request, () -> orderService.createOrder(userName, request));
     }
 
+    // Keyset pagination, pass nextCursor back as after to get the next page
     @GetMapping
-    List<OrderSummary> getOrders() {
+    CursorResult<OrderSummary> getOrders(
+            @RequestParam(name = "status", required = false) OrderStatus status,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "limit", defaultValue = "20") int limit) {
         String userName = securityService.getLoginUserName();
-        log.info("Fetching orders for user: {}", userName);
-        return orderService.findOrders(userName);
+        log.info("Fetching {} orders for user: {} after cursor: {}", limit, userName, after);
+        return orderService.findOrders(userName, status, after, limit);
+    }
+
+    // The full history is written as a JSON array while rows are read from the database, for exports only
+    @GetMapping("/export")
+    ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(name = "status", required = false) OrderStatus status) {
+        String userName = securityService.getLoginUserName();
+        log.info("Streaming orders for user: {}", userName);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.writeStartArray();
+                orderService.streamOrders(userName, status, summary -> writeValue(generator, summary));
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     @GetMapping(value = "/{orderNumber}")
@@ -58,4 +103,12 @@ class OrderController {
                 .findUserOrder(userName, orderNumber)
                 .orElseThrow(() -> new OrderNotFoundException(orderNumber));
     }
+
+    private static void writeValue(JsonGenerator generator, OrderSummary summary) {
+        try {
+            generator.writeObject(summary);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -1,5 +1,9 @@
 package com.kiin.bookstore.orders.web.exception;
 
+import com.kiin.bookstore.orders.clients.catalog.CatalogServiceException;
+import com.kiin.bookstore.orders.domain.IdempotencyKeyInProgressException;
+import com.kiin.bookstore.orders.domain.IdempotencyKeyReusedException;
+import com.kiin.bookstore.orders.domain.InvalidCursorException;
 import com.kiin.bookstore.orders.domain.InvalidOrderException;
 import com.kiin.bookstore.orders.domain.OrderNotFoundException;
 import java.net.URI;
@@ -23,6 +27,11 @@ class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     private static final URI NOT_FOUND_TYPE = URI.create("https://api.bookstore.com/errors/not-found");
     private static final URI ISE_FOUND_TYPE = URI.create("https://api.bookstore.com/errors/server-error");
     private static final URI BAD_REQUEST_TYPE = URI.create("https://api.bookstore.com/errors/bad-request");
+    private static final URI UNPROCESSABLE_ENTITY_TYPE =
+            URI.create("https://api.bookstore.com/errors/unprocessable-entity");
+    private static final URI CONFLICT_TYPE = URI.create("https://api.bookstore.com/errors/conflict");
+    private static final URI SERVICE_UNAVAILABLE_TYPE =
+            URI.create("https://api.bookstore.com/errors/service-unavailable");
     private static final String SERVICE_NAME = "order-service";
 
     @ExceptionHandler(Exception.class)
@@ -59,6 +68,50 @@ class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return problemDetail;
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    ProblemDetail handleInvalidCursorException(InvalidCursorException e) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+        problemDetail.setTitle("Invalid Cursor");
+        problemDetail.setType(BAD_REQUEST_TYPE);
+        problemDetail.setProperty("service", SERVICE_NAME);
+        problemDetail.setProperty("error_category", "Generic");
+        problemDetail.setProperty("timestamp", Instant.now());
+        return problemDetail;
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    ProblemDetail handleIdempotencyKeyReusedException(IdempotencyKeyReusedException e) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage());
+        problemDetail.setTitle("Idempotency Key Reused");
+        problemDetail.setType(UNPROCESSABLE_ENTITY_TYPE);
+        problemDetail.setProperty("service", SERVICE_NAME);
+        problemDetail.setProperty("error_category", "Generic");
+        problemDetail.setProperty("timestamp", Instant.now());
+        return problemDetail;
+    }
+
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    ProblemDetail handleIdempotencyKeyInProgressException(IdempotencyKeyInProgressException e) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage());
+        problemDetail.setTitle("Idempotency Key In Progress");
+        problemDetail.setType(CONFLICT_TYPE);
+        problemDetail.setProperty("service", SERVICE_NAME);
+        problemDetail.setProperty("error_category", "Generic");
+        problemDetail.setProperty("timestamp", Instant.now());
+        return problemDetail;
+    }
+
+    @ExceptionHandler(CatalogServiceException.class)
+    ProblemDetail handleCatalogServiceException(CatalogServiceException e) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        problemDetail.setTitle("Catalog Service Unavailable");
+        problemDetail.setType(SERVICE_UNAVAILABLE_TYPE);
+        problemDetail.setProperty("service", SERVICE_NAME);
+        problemDetail.setProperty("error_category", "Generic");
+        problemDetail.setProperty("timestamp", Instant.now());
+        return problemDetail;
+    }
+
     @Override
     @Nullable protected ResponseEntity<Object> handleMethodArgumentNotValid(
             MethodArgumentNotValidException ex, HttpHeaders headers, HttpStatusCode status, WebRequest request) {
@@ -0,0 +1,6 @@
+update orders set created_at = now() where created_at is null;
+alter table orders alter column created_at set default now();
+alter table orders alter column created_at set not null;
+
+-- Backs the keyset order history, order_number and status are included for index-only scans
+create index orders_username_created_at_id_idx on orders (username, created_at desc, id desc) include (order_number, status);
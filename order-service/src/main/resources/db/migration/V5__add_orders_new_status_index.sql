@@ -0,0 +1,2 @@
+-- Only NEW orders are indexed, so the straggler sweep is an index scan over a near-empty index
+create index orders_new_id_idx on orders (id) where status = 'NEW';
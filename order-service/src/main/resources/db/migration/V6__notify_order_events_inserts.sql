@@ -0,0 +1,14 @@
+-- Wakes the outbox relay of every order-service instance (see OrderEventsRelay).
+-- Sent on commit, and notifications repeated within one transaction are delivered once.
+create function notify_order_events() returns trigger as
+$$
+begin
+    perform pg_notify('order_events', '');
+    return null;
+end;
+$$ language plpgsql;
+
+create trigger order_events_notify
+    after insert on order_events
+    for each statement
+execute function notify_order_events();
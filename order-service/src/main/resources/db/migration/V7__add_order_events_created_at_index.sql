@@ -0,0 +1,2 @@
+-- Serves the outbox relay's "order by created_at, id limit n" without sorting the whole table
+create index order_events_created_at_id_idx on order_events (created_at, id);
@@ -0,0 +1,163 @@
+-- Range partitions by month on created_at for orders and order_items. order_items carries the created_at of its
+-- order, so both rows always land in partitions of the same month and are archived together.
+
+alter table order_items drop constraint order_items_order_id_fkey;
+-- A unique order_number can't be enforced across partitions, so order_events no longer references it
+alter table order_events drop constraint order_events_order_number_fkey;
+
+alter table orders rename to orders_unpartitioned;
+alter table orders_unpartitioned rename constraint orders_pkey to orders_unpartitioned_pkey;
+alter table orders_unpartitioned rename constraint orders_order_number_key to orders_unpartitioned_order_number_key;
+drop index orders_username_created_at_id_idx;
+drop index orders_new_id_idx;
+alter table order_items rename to order_items_unpartitioned;
+alter table order_items_unpartitioned rename constraint order_items_pkey to order_items_unpartitioned_pkey;
+
+create table orders
+(
+    id                        bigint    default nextval('order_id_seq') not null,
+    order_number              text                                      not null,
+    username                  text                                      not null,
+    customer_name             text                                      not null,
+    customer_email            text                                      not null,
+    customer_phone            text                                      not null,
+    delivery_address_line1    text                                      not null,
+    delivery_address_line2    text,
+    delivery_address_city     text                                      not null,
+    delivery_address_state    text                                      not null,
+    delivery_address_zip_code text                                      not null,
+    delivery_address_country  text                                      not null,
+    status                    text                                      not null,
+    comments                  text,
+    created_at                timestamp default now()                   not null,
+    updated_at                timestamp,
+    primary key (id, created_at),
+    unique (order_number, created_at)
+) partition by range (created_at);
+
+create index orders_username_created_at_id_idx on orders (username, created_at desc, id desc) include (order_number, status);
+create index orders_new_id_idx on orders (id) where status = 'NEW';
+
+create table order_items
+(
+    id         bigint  default nextval('order_item_id_seq') not null,
+    order_id   bigint                                       not null,
+    created_at timestamp                                    not null,
+    code       text                                         not null,
+    name       text                                         not null,
+    price      numeric                                      not null,
+    quantity   integer                                      not null,
+    primary key (id, created_at),
+    foreign key (order_id, created_at) references orders (id, created_at)
+) partition by range (created_at);
+
+create index order_items_order_id_idx on order_items (order_id);
+
+-- Cold store for archived partitions: one JSON document per order, in the shape of OrderDTO.
+-- A low toast_tuple_target makes Postgres compress these small rows instead of only values over ~2kB.
+create table order_archive
+(
+    order_number text      not null primary key,
+    username     text      not null,
+    created_at   timestamp not null,
+    document     jsonb     not null
+) with (toast_tuple_target = 256);
+
+alter table order_archive alter column document set compression lz4;
+
+create function create_order_partition(month date) returns void as
+$$
+declare
+    suffix      text      := to_char(month, '"y"YYYY"m"MM');
+    lower_bound timestamp := date_trunc('month', month);
+    upper_bound timestamp := date_trunc('month', month) + interval '1 month';
+begin
+    execute format('create table if not exists %I partition of orders for values from (%L) to (%L)',
+                   'orders_' || suffix, lower_bound, upper_bound);
+    execute format('create table if not exists %I partition of order_items for values from (%L) to (%L)',
+                   'order_items_' || suffix, lower_bound, upper_bound);
+end;
+$$ language plpgsql;
+
+-- Copies one month into order_archive, then detaches and drops its partitions, all in the caller's transaction.
+-- Any error (e.g. an order_number already archived) aborts the whole month, nothing is dropped.
+create function archive_order_partition(month date) returns integer as
+$$
+declare
+    suffix   text := to_char(month, '"y"YYYY"m"MM');
+    archived integer;
+begin
+    if to_regclass('orders_' || suffix) is null then
+        return 0;
+    end if;
+    execute format($sql$
+        insert into order_archive (order_number, username, created_at, document)
+        select o.order_number,
+               o.username,
+               o.created_at,
+               jsonb_build_object(
+                   'orderNumber', o.order_number,
+                   'user', o.username,
+                   'items', coalesce((select jsonb_agg(jsonb_build_object(
+                                                  'code', i.code,
+                                                  'name', i.name,
+                                                  'price', i.price,
+                                                  'quantity', i.quantity))
+                                      from %I i
+                                      where i.order_id = o.id), '[]'::jsonb),
+                   'customer', jsonb_build_object(
+                       'name', o.customer_name,
+                       'email', o.customer_email,
+                       'phone', o.customer_phone),
+                   'deliveryAddress', jsonb_build_object(
+                       'addressLine1', o.delivery_address_line1,
+                       'addressLine2', o.delivery_address_line2,
+                       'city', o.delivery_address_city,
+                       'state', o.delivery_address_state,
+                       'zipCode', o.delivery_address_zip_code,
+                       'country', o.delivery_address_country),
+                   'status', o.status,
+                   'comments', o.comments,
+                   'createdAt', o.created_at)
+        from %I o
+        $sql$, 'order_items_' || suffix, 'orders_' || suffix);
+    get diagnostics archived = row_count;
+    execute format('alter table order_items detach partition %I', 'order_items_' || suffix);
+    execute format('alter table orders detach partition %I', 'orders_' || suffix);
+    execute format('drop table %I', 'order_items_' || suffix);
+    execute format('drop table %I', 'orders_' || suffix);
+    return archived;
+end;
+$$ language plpgsql;
+
+-- Partitions for the existing rows up to three months ahead, later months are added by OrderPartitionService
+do
+$$
+    declare
+        month date := date_trunc('month', coalesce((select min(created_at) from orders_unpartitioned), now()));
+    begin
+        while month <= date_trunc('month', now()) + interval '3 months'
+            loop
+                perform create_order_partition(month);
+                month := month + interval '1 month';
+            end loop;
+    end
+$$;
+
+insert into orders (id, order_number, username, customer_name, customer_email, customer_phone,
+                    delivery_address_line1, delivery_address_line2, delivery_address_city,
+                    delivery_address_state, delivery_address_zip_code, delivery_address_country,
+                    status, comments, created_at, updated_at)
+select id, order_number, username, customer_name, customer_email, customer_phone,
+       delivery_address_line1, delivery_address_line2, delivery_address_city,
+       delivery_address_state, delivery_address_zip_code, delivery_address_country,
+       status, comments, created_at, updated_at
+from orders_unpartitioned;
+
+insert into order_items (id, order_id, created_at, code, name, price, quantity)
+select i.id, i.order_id, o.created_at, i.code, i.name, i.price, i.quantity
+from order_items_unpartitioned i
+         join orders_unpartitioned o on o.id = i.order_id;
+
+drop table order_items_unpartitioned;
+drop table orders_unpartitioned;
@@ -0,0 +1,17 @@
+-- Counts failed publish attempts, an event that keeps failing is moved to order_events_parked
+-- so it no longer sits at the head of the outbox (see OrderEventService)
+alter table order_events add column publish_attempts integer default 0 not null;
+
+-- Replayed by moving a row back into order_events with publish_attempts reset to 0
+create table order_events_parked
+(
+    id               bigint                  not null,
+    order_number     text                    not null,
+    event_id         text                    not null unique,
+    event_type       text                    not null,
+    payload          text                    not null,
+    created_at       timestamp               not null,
+    publish_attempts integer                 not null,
+    parked_at        timestamp default now() not null,
+    primary key (id)
+);
@@ -62,6 +62,23 @@ public abstract class AbstractIT {
                                         .formatted(code, name, price.doubleValue()))));
     }
 
+    protected static void mockGetProductsByCodes(String code, String name, BigDecimal price) {
+        stubFor(WireMock.post(urlMatching("/api/products/batch"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                        .withStatus(200)
+                        .withBody(
+                                """
+                            [
+                                {
+                                    "code": "%s",
+                                    "name": "%s",
+                                    "price": %f
+                                }
+                            ]"""
+                                        .formatted(code, name, price.doubleValue()))));
+    }
+
     protected String getToken() {
         RestTemplate restTemplate = new RestTemplate();
         HttpHeaders headers = new HttpHeaders();
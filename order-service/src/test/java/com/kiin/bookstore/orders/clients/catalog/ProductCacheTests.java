@@ -0,0 +1,88 @@
+package com.kiin.bookstore.orders.clients.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.kiin.bookstore.orders.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ProductCacheTests {
+    private final Product product = new Product("P100", "The Hunger Games", null, null, new BigDecimal("34.0"));
+
+    private ProductServiceClient client;
+    private ApplicationProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ProductCache productCache;
+
+    @BeforeEach
+    void setUp() {
+        client = mock(ProductServiceClient.class);
+        meterRegistry = new SimpleMeterRegistry();
+        properties = mock(ApplicationProperties.class);
+        given(properties.productCacheMaximumSize()).willReturn(100L);
+        given(properties.productCacheTtl()).willReturn(Duration.ofMinutes(10));
+        given(properties.productCacheRefreshAfter()).willReturn(Duration.ofMinutes(1));
+        productCache = new ProductCache(client, properties, meterRegistry);
+        given(client.getProductsByCodes(anyCollection())).willReturn(Map.of("P100", product));
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromCache() {
+        productCache.getProductsByCodes(List.of("P100"));
+        Map<String, Product> products = productCache.getProductsByCodes(List.of("P100"));
+
+        assertThat(products).containsEntry("P100", product);
+        verify(client, times(1)).getProductsByCodes(anyCollection());
+        assertThat(meterRegistry
+                        .get("cache.gets")
+                        .tag("result", "hit")
+                        .functionCounter()
+                        .count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldFetchAgainAfterInvalidation() {
+        productCache.getProductsByCodes(List.of("P100"));
+        productCache.invalidate("P100");
+        productCache.getProductsByCodes(List.of("P100"));
+
+        verify(client, times(2)).getProductsByCodes(anyCollection());
+    }
+
+    @Test
+    void shouldPropagateCatalogFailuresOnLoad() {
+        given(client.getProductsByCodes(anyCollection()))
+                .willThrow(new CatalogServiceException("catalog-service is down", null));
+
+        assertThatThrownBy(() -> productCache.getProductsByCodes(List.of("P100")))
+                .isInstanceOf(CatalogServiceException.class);
+    }
+
+    @Test
+    void shouldKeepCachedProductWhenRefreshFails() throws InterruptedException {
+        given(properties.productCacheRefreshAfter()).willReturn(Duration.ofMillis(1));
+        productCache = new ProductCache(client, properties, meterRegistry);
+        productCache.getProductsByCodes(List.of("P100"));
+        given(client.getProductByCode("P100")).willThrow(new CatalogServiceException("catalog-service is down", null));
+        Thread.sleep(10);
+
+        Map<String, Product> products = productCache.getProductsByCodes(List.of("P100"));
+
+        assertThat(products).containsEntry("P100", product);
+        verify(client, timeout(5000)).getProductByCode("P100");
+        assertThat(productCache.getProductsByCodes(List.of("P100"))).containsEntry("P100", product);
+    }
+}
@@ -0,0 +1,44 @@
+package com.kiin.bookstore.orders.clients.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.jsonPath;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+class ProductServiceClientTests {
+
+    @Test
+    void shouldSplitLargeLookupsIntoBatchesTheCatalogAccepts() {
+        RestClient.Builder builder = RestClient.builder().baseUrl("http://catalog-service");
+        MockRestServiceServer server = MockRestServiceServer.bindTo(builder).build();
+        ProductServiceClient client = new ProductServiceClient(builder.build());
+        List<String> codes =
+                IntStream.range(0, 150).mapToObj("P%03d"::formatted).toList();
+        server.expect(requestTo("http://catalog-service/api/products/batch"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(jsonPath("$.length()").value(ProductServiceClient.MAX_BATCH_SIZE))
+                .andRespond(withSuccess(
+                        "[{\"code\":\"P000\",\"name\":\"First\",\"price\":10.0}]", MediaType.APPLICATION_JSON));
+        server.expect(requestTo("http://catalog-service/api/products/batch"))
+                .andExpect(jsonPath("$.length()").value(50))
+                .andExpect(jsonPath("$", Matchers.hasItem("P149")))
+                .andRespond(withSuccess(
+                        "[{\"code\":\"P149\",\"name\":\"Last\",\"price\":20.0}]", MediaType.APPLICATION_JSON));
+
+        Map<String, Product> products = client.getProductsByCodes(codes);
+
+        assertThat(products).containsOnlyKeys("P000", "P149");
+        server.verify();
+    }
+}
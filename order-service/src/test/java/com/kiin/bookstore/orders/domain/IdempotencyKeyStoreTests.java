@@ -0,0 +1,127 @@
+package com.kiin.bookstore.orders.domain;
+
+import static com.kiin.bookstore.orders.testdata.TestDataFactory.createValidOrderRequest;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import com.kiin.bookstore.orders.ApplicationProperties;
+import com.kiin.bookstore.orders.domain.models.CreateOrderRequest;
+import com.kiin.bookstore.orders.domain.models.CreateOrderResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IdempotencyKeyStoreTests {
+    private final CreateOrderRequest request = createValidOrderRequest();
+
+    private IdempotencyKeyStore store;
+    private AtomicInteger createdCount;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties properties = mock(ApplicationProperties.class);
+        given(properties.idempotencyKeyMaximumSize()).willReturn(100L);
+        given(properties.idempotencyKeyTtl()).willReturn(Duration.ofMinutes(10));
+        given(properties.idempotencyKeyWaitTimeout()).willReturn(Duration.ofMillis(200));
+        store = new IdempotencyKeyStore(properties, new SimpleMeterRegistry());
+        createdCount = new AtomicInteger();
+    }
+
+    @Test
+    void shouldReturnStoredResponseForRepeatedKey() {
+        CreateOrderResponse first = store.createOrder("khoa", "key-1", request, this::create);
+        CreateOrderResponse second = store.createOrder("khoa", "key-1", request, this::create);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(createdCount).hasValue(1);
+    }
+
+    @Test
+    void shouldWaitForInFlightRequestWithSameKey() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<CreateOrderResponse> first =
+                CompletableFuture.supplyAsync(() -> store.createOrder("khoa", "key-1", request, () -> {
+                    started.countDown();
+                    awaitQuietly(release);
+                    return create();
+                }));
+        started.await();
+        CompletableFuture<CreateOrderResponse> duplicate =
+                CompletableFuture.supplyAsync(() -> store.createOrder("khoa", "key-1", request, this::create));
+        release.countDown();
+
+        assertThat(duplicate.get()).isEqualTo(first.get());
+        assertThat(createdCount).hasValue(1);
+    }
+
+    @Test
+    void shouldRejectKeyReusedWithDifferentRequest() {
+        store.createOrder("khoa", "key-1", request, this::create);
+
+        assertThatThrownBy(() -> store.createOrder("khoa", "key-1", createValidOrderRequest(), this::create))
+                .isInstanceOf(IdempotencyKeyReusedException.class);
+    }
+
+    @Test
+    void shouldAllowRetryAfterFailedAttempt() {
+        assertThatThrownBy(() -> store.createOrder("khoa", "key-1", request, () -> {
+                    throw new InvalidOrderException("Invalid order");
+                }))
+                .isInstanceOf(InvalidOrderException.class);
+
+        store.createOrder("khoa", "key-1", request, this::create);
+
+        assertThat(createdCount).hasValue(1);
+    }
+
+    @Test
+    void shouldAllowRetryAfterCreatorThrowsError() {
+        assertThatThrownBy(() -> store.createOrder("khoa", "key-1", request, () -> {
+                    throw new OutOfMemoryError("Java heap space");
+                }))
+                .isInstanceOf(OutOfMemoryError.class);
+
+        CreateOrderResponse response = store.createOrder("khoa", "key-1", request, this::create);
+
+        assertThat(response.orderNumber()).isEqualTo("order-1");
+    }
+
+    @Test
+    void shouldStopWaitingForInFlightRequestAfterTimeout() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<CreateOrderResponse> first =
+                CompletableFuture.supplyAsync(() -> store.createOrder("khoa", "key-1", request, () -> {
+                    started.countDown();
+                    awaitQuietly(release);
+                    return create();
+                }));
+        started.await();
+
+        assertThatThrownBy(() -> store.createOrder("khoa", "key-1", request, this::create))
+                .isInstanceOf(IdempotencyKeyInProgressException.class);
+
+        release.countDown();
+        assertThat(first.get().orderNumber()).isEqualTo("order-1");
+        assertThat(store.createOrder("khoa", "key-1", request, this::create)).isEqualTo(first.get());
+    }
+
+    private CreateOrderResponse create() {
+        return new CreateOrderResponse("order-" + createdCount.incrementAndGet());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
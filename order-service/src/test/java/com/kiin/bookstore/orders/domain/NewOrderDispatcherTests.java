@@ -0,0 +1,85 @@
+package com.kiin.bookstore.orders.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import com.kiin.bookstore.orders.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class NewOrderDispatcherTests {
+    private final OrderService orderService = mock(OrderService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private NewOrderDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void shouldProcessPlacedOrderRightAway() {
+        dispatcher = newDispatcher(10);
+
+        dispatcher.onOrderPlaced(new NewOrderDispatcher.OrderPlaced(1L));
+
+        verify(orderService, timeout(2000)).processOrders(List.of(1L));
+    }
+
+    @Test
+    void shouldBatchOrdersQueuedWhileWorkerIsBusy() throws InterruptedException {
+        CountDownLatch firstChunkStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstChunk = new CountDownLatch(1);
+        given(orderService.processOrders(anyList())).willAnswer(invocation -> {
+            firstChunkStarted.countDown();
+            releaseFirstChunk.await(2, TimeUnit.SECONDS);
+            return 0;
+        });
+        dispatcher = newDispatcher(10);
+
+        dispatcher.onOrderPlaced(new NewOrderDispatcher.OrderPlaced(1L));
+        assertThat(firstChunkStarted.await(2, TimeUnit.SECONDS)).isTrue();
+        dispatcher.onOrderPlaced(new NewOrderDispatcher.OrderPlaced(2L));
+        dispatcher.onOrderPlaced(new NewOrderDispatcher.OrderPlaced(3L));
+        releaseFirstChunk.countDown();
+
+        verify(orderService, timeout(2000)).processOrders(List.of(2L, 3L));
+    }
+
+    @Test
+    void shouldLeaveOrdersForSweeperWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch firstChunkStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstChunk = new CountDownLatch(1);
+        given(orderService.processOrders(anyList())).willAnswer(invocation -> {
+            firstChunkStarted.countDown();
+            releaseFirstChunk.await(2, TimeUnit.SECONDS);
+            return 0;
+        });
+        dispatcher = newDispatcher(1);
+
+        dispatcher.onOrderPlaced(new NewOrderDispatcher.OrderPlaced(1L));
+        assertThat(firstChunkStarted.await(2, TimeUnit.SECONDS)).isTrue();
+        dispatcher.onOrderPlaced(new NewOrderDispatcher.OrderPlaced(2L));
+        dispatcher.onOrderPlaced(new NewOrderDispatcher.OrderPlaced(3L));
+        releaseFirstChunk.countDown();
+
+        assertThat(meterRegistry.get("orders.new.dispatch.rejected").counter().count())
+                .isEqualTo(1);
+    }
+
+    private NewOrderDispatcher newDispatcher(int queueCapacity) {
+        ApplicationProperties properties = mock(ApplicationProperties.class);
+        given(properties.newOrdersQueueCapacity()).willReturn(queueCapacity);
+        given(properties.newOrdersChunkSize()).willReturn(50);
+        given(properties.newOrdersWorkers()).willReturn(1);
+        return new NewOrderDispatcher(orderService, properties, meterRegistry);
+    }
+}
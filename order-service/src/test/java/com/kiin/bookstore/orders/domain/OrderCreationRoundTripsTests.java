@@ -0,0 +1,85 @@
+package com.kiin.bookstore.orders.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.instancio.Select.field;
+
+import com.kiin.bookstore.orders.AbstractIT;
+import com.kiin.bookstore.orders.domain.models.Address;
+import com.kiin.bookstore.orders.domain.models.CreateOrderRequest;
+import com.kiin.bookstore.orders.domain.models.OrderItem;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.instancio.Instancio;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Counts the JDBC statements needed to persist a 50-item order with its outbox event. The sequences are created with
+// "increment by 50", matching the default allocationSize of @SequenceGenerator, so the pooled optimizer hands out
+// 50 ids per nextval.
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class OrderCreationRoundTripsTests extends AbstractIT {
+    private static final Logger log = LoggerFactory.getLogger(OrderCreationRoundTripsTests.class);
+    private static final int ITEM_COUNT = 50;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    OrderEventService orderEventService;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldBatchInsertsWhenCreatingLargeOrder() {
+        Set<OrderItem> items = IntStream.range(0, ITEM_COUNT)
+                .mapToObj(i -> new OrderItem("P" + i, "Product " + i, new BigDecimal("10.00"), 1))
+                .collect(Collectors.toSet());
+        CreateOrderRequest request = Instancio.of(CreateOrderRequest.class)
+                .set(field(CreateOrderRequest::items), items)
+                .set(field(Address::country), "India")
+                .create();
+        Statistics statistics =
+                entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long itemIdsBefore = lastItemId();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            OrderEntity order = OrderMapper.convertToEntity(request);
+            order.setUserName("khoa");
+            orderRepository.save(order);
+            orderEventService.save(OrderEventMapper.buildOrderCreatedEvent(order));
+        });
+
+        log.info(
+                "Persisted {} entities with {} JDBC statements",
+                statistics.getEntityInsertCount(),
+                statistics.getPrepareStatementCount());
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(ITEM_COUNT + 2);
+        // order, item batch and event inserts, plus at most one sequence call per table
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(6);
+        // 50 items took at most one nextval, an allocationSize of 1 would have taken one per item
+        assertThat(lastItemId() - itemIdsBefore).isLessThanOrEqualTo(50);
+    }
+
+    private long lastItemId() {
+        Long lastValue = jdbcTemplate.queryForObject("select last_value from order_item_id_seq", Long.class);
+        return lastValue == null ? 0 : lastValue;
+    }
+}
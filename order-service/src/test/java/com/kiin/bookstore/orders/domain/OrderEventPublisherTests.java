@@ -0,0 +1,76 @@
+package com.kiin.bookstore.orders.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+
+import com.kiin.bookstore.orders.ApplicationProperties;
+import com.kiin.bookstore.orders.domain.models.OrderDeliveredEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+class OrderEventPublisherTests {
+    private final OrderDeliveredEvent event = new OrderDeliveredEvent("event-1", "order-1", Set.of(), null, null, null);
+
+    private RabbitTemplate rabbitTemplate;
+    private OrderEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        rabbitTemplate = mock(RabbitTemplate.class);
+        ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+        given(connectionFactory.isPublisherConfirms()).willReturn(true);
+        given(rabbitTemplate.getConnectionFactory()).willReturn(connectionFactory);
+        ApplicationProperties properties = mock(ApplicationProperties.class);
+        given(properties.orderEventsExchange()).willReturn("orders-exchange");
+        given(properties.deliveredOrdersQueue()).willReturn("delivered-orders");
+        given(properties.publisherConfirmWindow()).willReturn(10);
+        given(properties.publisherConfirmTimeout()).willReturn(Duration.ofSeconds(5));
+        publisher = new OrderEventPublisher(rabbitTemplate, properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldTreatAckedEventAsPublished() {
+        brokerAnswers(false);
+
+        assertThat(publisher.publish(event).join()).isTrue();
+    }
+
+    @Test
+    void shouldTreatReturnedEventAsNotPublished() {
+        brokerAnswers(true);
+
+        assertThat(publisher.publish(event).join()).isFalse();
+    }
+
+    // A returned message is handed to its correlation data before the broker's ack arrives
+    private void brokerAnswers(boolean unroutable) {
+        willAnswer(invocation -> {
+                    CorrelationData correlationData = invocation.getArgument(3);
+                    if (unroutable) {
+                        correlationData.setReturned(new ReturnedMessage(
+                                new Message(new byte[0], new MessageProperties()),
+                                312,
+                                "NO_ROUTE",
+                                "orders-exchange",
+                                "delivered-orders"));
+                    }
+                    correlationData.getFuture().complete(new CorrelationData.Confirm(true, null));
+                    return null;
+                })
+                .given(rabbitTemplate)
+                .convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+    }
+}
@@ -0,0 +1,125 @@
+package com.kiin.bookstore.orders.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doReturn;
+
+import com.kiin.bookstore.orders.AbstractIT;
+import com.kiin.bookstore.orders.ApplicationProperties;
+import com.kiin.bookstore.orders.domain.models.OrderDeliveredEvent;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.context.jdbc.Sql;
+
+// The relay is kept idle, so the outbox only changes when a test publishes it
+@Sql({"/test-orders.sql", "/test-order-events.sql"})
+@TestPropertySource(
+        properties = {
+            "orders.publish-order-events-batch-size=2",
+            "orders.publish-order-events-max-attempts=2",
+            "orders.publish-order-events-min-interval=1h",
+            "orders.publish-order-events-max-interval=1h",
+            "orders.publish-order-events-listen-notify=false"
+        })
+class OrderEventServiceTests extends AbstractIT {
+
+    @Autowired
+    OrderEventService orderEventService;
+
+    @Autowired
+    OrderEventRepository orderEventRepository;
+
+    @MockitoSpyBean
+    OrderEventPublisher orderEventPublisher;
+
+    @Autowired
+    RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    AmqpAdmin amqpAdmin;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ApplicationProperties properties;
+
+    @BeforeEach
+    void purgeQueues() {
+        jdbcTemplate.execute("truncate table order_events_parked");
+        for (String queue : List.of(
+                properties.deliveredOrdersQueue(), properties.cancelledOrdersQueue(), properties.errorOrdersQueue())) {
+            amqpAdmin.purgeQueue(queue, false);
+        }
+    }
+
+    @Test
+    void shouldPublishOutboxInOrderAcrossBatches() {
+        int published = orderEventService.publishOrderEvents();
+
+        assertThat(published).isEqualTo(5);
+        assertThat(orderEventRepository.count()).isZero();
+        assertThat(receiveEventIds(properties.deliveredOrdersQueue())).containsExactly("event-1", "event-2");
+        assertThat(receiveEventIds(properties.cancelledOrdersQueue())).containsExactly("event-3", "event-4");
+        assertThat(receiveEventIds(properties.errorOrdersQueue())).containsExactly("event-5");
+    }
+
+    @Test
+    void shouldKeepNackedEventAndParkItAfterMaxAttempts() {
+        doReturn(CompletableFuture.completedFuture(false))
+                .when(orderEventPublisher)
+                .publish(argThat((OrderDeliveredEvent event) -> event != null && "event-2".equals(event.eventId())));
+
+        orderEventService.publishOrderEvents();
+
+        assertThat(outboxEventIds()).containsExactly("event-2", "event-3", "event-4", "event-5");
+        assertThat(jdbcTemplate.queryForObject(
+                        "select publish_attempts from order_events where event_id = 'event-2'", Integer.class))
+                .isEqualTo(1);
+
+        orderEventService.publishOrderEvents();
+        orderEventService.publishOrderEvents();
+
+        assertThat(outboxEventIds()).isEmpty();
+        assertThat(jdbcTemplate.queryForList("select event_id from order_events_parked", String.class))
+                .containsExactly("event-2");
+        assertThat(receiveEventIds(properties.deliveredOrdersQueue())).containsExactly("event-1");
+        assertThat(receiveEventIds(properties.cancelledOrdersQueue())).containsExactly("event-3", "event-4");
+        assertThat(receiveEventIds(properties.errorOrdersQueue())).containsExactly("event-5");
+    }
+
+    @Test
+    void shouldNotBlockOutboxOnUnreadablePayload() {
+        jdbcTemplate.update("update order_events set payload = 'not json' where event_id = 'event-1'");
+
+        orderEventService.publishOrderEvents();
+
+        assertThat(outboxEventIds()).containsExactly("event-1", "event-3", "event-4", "event-5");
+        assertThat(receiveEventIds(properties.deliveredOrdersQueue())).containsExactly("event-2");
+    }
+
+    private List<String> outboxEventIds() {
+        return jdbcTemplate.queryForList("select event_id from order_events order by created_at, id", String.class);
+    }
+
+    private List<String> receiveEventIds(String queue) {
+        List<String> eventIds = new ArrayList<>();
+        Message message;
+        while ((message = rabbitTemplate.receive(queue, 1000)) != null) {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            eventIds.add(body.replaceAll(".*\"eventId\":\"([^\"]+)\".*", "$1"));
+        }
+        return eventIds;
+    }
+}
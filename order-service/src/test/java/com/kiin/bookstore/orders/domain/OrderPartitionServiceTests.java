@@ -0,0 +1,117 @@
+package com.kiin.bookstore.orders.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.kiin.bookstore.orders.AbstractIT;
+import com.kiin.bookstore.orders.domain.models.OrderDTO;
+import com.kiin.bookstore.orders.domain.models.OrderStatus;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+@Sql("/test-orders.sql")
+class OrderPartitionServiceTests extends AbstractIT {
+    private static final YearMonth ARCHIVED_MONTH = YearMonth.of(2020, 1);
+
+    @Autowired
+    OrderPartitionService orderPartitionService;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldCreateComingMonths() {
+        orderPartitionService.createPartitions();
+
+        assertThat(partitionExists(YearMonth.now().plusMonths(3))).isTrue();
+    }
+
+    @Test
+    void shouldArchiveExpiredPartitionAndStillFindItsOrders() {
+        orderPartitionService.createPartition(ARCHIVED_MONTH);
+        jdbcTemplate.update(
+                """
+                insert into orders (id, order_number, username, customer_name, customer_email, customer_phone,
+                                    delivery_address_line1, delivery_address_city, delivery_address_state,
+                                    delivery_address_zip_code, delivery_address_country, status, created_at)
+                values (10, 'order-archived', 'khoa', 'khoa', 'khoa@gmail.com', '11111111',
+                        '123 Main St', 'Dallas', 'TX', '75001', 'USA', 'DELIVERED', '2020-01-15 10:00:00')
+                """);
+        jdbcTemplate.update(
+                """
+                insert into order_items (order_id, created_at, code, name, price, quantity)
+                values (10, '2020-01-15 10:00:00', 'P100', 'The Hunger Games', 34.0, 2)
+                """);
+
+        orderPartitionService.archiveExpiredPartitions();
+
+        assertThat(partitionExists(ARCHIVED_MONTH)).isFalse();
+        OrderDTO order = orderService.findUserOrder("khoa", "order-archived").orElseThrow();
+        assertThat(order.status()).isEqualTo(OrderStatus.DELIVERED);
+        assertThat(order.customer().email()).isEqualTo("khoa@gmail.com");
+        assertThat(order.getTotalAmount()).isEqualByComparingTo(new BigDecimal("68.0"));
+        assertThat(orderService.findUserOrder("someone-else", "order-archived")).isEmpty();
+        assertThat(orderService.findUserOrder("khoa", "order-123")).isPresent();
+    }
+
+    @Test
+    void shouldKeepArchivingLaterMonthsWhenOneMonthFails() {
+        YearMonth failingMonth = ARCHIVED_MONTH;
+        YearMonth nextMonth = ARCHIVED_MONTH.plusMonths(1);
+        orderPartitionService.createPartition(failingMonth);
+        orderPartitionService.createPartition(nextMonth);
+        insertOrder(11, "order-conflicting", "2020-01-15 10:00:00");
+        insertOrder(12, "order-next-month", "2020-02-15 10:00:00");
+        // Already archived under the same order number, so archiving January fails on the primary key
+        jdbcTemplate.update(
+                """
+                insert into order_archive (order_number, username, created_at, document)
+                values ('order-conflicting', 'khoa', '2020-01-15 10:00:00', '{}')
+                """);
+
+        orderPartitionService.archiveExpiredPartitions();
+
+        assertThat(partitionExists(failingMonth)).isTrue();
+        assertThat(partitionExists(nextMonth)).isFalse();
+        assertThat(orderService.findUserOrder("khoa", "order-next-month")).isPresent();
+    }
+
+    @Test
+    void shouldOnlyConsiderMonthlyPartitions() {
+        jdbcTemplate.execute(
+                "create table orders_legacy partition of orders for values from ('2000-01-01') to ('2001-01-01')");
+        try {
+            assertThat(orderPartitionService.findPartitionMonths())
+                    .isNotEmpty()
+                    .allSatisfy(month -> assertThat(month.getYear()).isGreaterThan(2000));
+        } finally {
+            jdbcTemplate.execute("drop table orders_legacy");
+        }
+    }
+
+    private void insertOrder(long id, String orderNumber, String createdAt) {
+        jdbcTemplate.update(
+                """
+                insert into orders (id, order_number, username, customer_name, customer_email, customer_phone,
+                                    delivery_address_line1, delivery_address_city, delivery_address_state,
+                                    delivery_address_zip_code, delivery_address_country, status, created_at)
+                values (?, ?, 'khoa', 'khoa', 'khoa@gmail.com', '11111111',
+                        '123 Main St', 'Dallas', 'TX', '75001', 'USA', 'DELIVERED', ?::timestamp)
+                """,
+                id,
+                orderNumber,
+                createdAt);
+    }
+
+    private boolean partitionExists(YearMonth month) {
+        String name = "orders_y%dm%02d".formatted(month.getYear(), month.getMonthValue());
+        return Boolean.TRUE.equals(
+                jdbcTemplate.queryForObject("select to_regclass(?) is not null", Boolean.class, name));
+    }
+}
@@ -0,0 +1,67 @@
+package com.kiin.bookstore.orders.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.kiin.bookstore.orders.AbstractIT;
+import com.kiin.bookstore.orders.domain.models.OrderStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+@Sql({"/test-orders.sql", "/test-order-events.sql"})
+@TestPropertySource(properties = {"orders.new-orders-fetch-size=1", "orders.new-orders-chunk-size=1"})
+class OrderServiceTests extends AbstractIT {
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    OrderEventRepository orderEventRepository;
+
+    @Autowired
+    OrderPartitionService orderPartitionService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    void shouldProcessAllNewOrdersAcrossPages() {
+        orderService.processNewOrders();
+
+        assertThat(orderRepository.findAll()).extracting(OrderEntity::getStatus).containsOnly(OrderStatus.DELIVERED);
+    }
+
+    @Test
+    void shouldReportNewOrdersTooOldToProcess() {
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(60);
+        orderPartitionService.createPartition(YearMonth.from(createdAt));
+        jdbcTemplate.update(
+                """
+                insert into orders (id, order_number, username, customer_name, customer_email, customer_phone,
+                                    delivery_address_line1, delivery_address_city, delivery_address_state,
+                                    delivery_address_zip_code, delivery_address_country, status, created_at)
+                values (10, 'order-stale', 'khoa', 'khoa', 'khoa@gmail.com', '11111111',
+                        '123 Main St', 'Dallas', 'TX', '75001', 'USA', 'NEW', ?)
+                """,
+                createdAt);
+
+        orderService.processNewOrders();
+
+        assertThat(orderRepository.findByOrderNumber("order-stale"))
+                .get()
+                .extracting(OrderEntity::getStatus)
+                .isEqualTo(OrderStatus.NEW);
+        assertThat(meterRegistry.get("orders.new.stale").gauge().value()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,123 @@
+package com.kiin.bookstore.orders.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.kiin.bookstore.orders.AbstractIT;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Each test runs a repository query, takes the SQL Hibernate generated for it and explains that SQL with the same
+// parameter values. The test tables are tiny, so sequential scans are disabled to check that an index can serve
+// the query at all. If it can't, Postgres still falls back to a Seq Scan and the test fails.
+@Sql({"/test-orders.sql", "/test-order-events.sql"})
+@TestPropertySource(
+        properties =
+                "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.kiin.bookstore.orders.domain.QueryPlanTests$SqlRecorder")
+class QueryPlanTests extends AbstractIT {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    OrderEventRepository orderEventRepository;
+
+    @Test
+    void outboxBatchShouldUseCreatedAtIndex() {
+        String sql = SqlRecorder.capture(
+                () -> transactionTemplate.execute(status -> orderEventRepository.findNextBatchForPublishing(100)));
+
+        String plan = explain(sql, 100);
+
+        assertThat(plan).doesNotContain("Seq Scan").contains("using order_events_created_at_id_idx ");
+    }
+
+    // orders is partitioned, so the plan names the per-partition copies of the indexes, e.g. orders_y2026m10_id_idx
+    @Test
+    void newOrdersSweepShouldUsePartialIndexOfRecentPartitionsOnly() {
+        jdbcTemplate.execute("select create_order_partition(date '2020-01-01')");
+        LocalDateTime since = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+        String sql = SqlRecorder.capture(() -> orderRepository.findNewOrderIdsAfter(since, 0L, Limit.of(500)));
+
+        String plan = explain(sql, since, 0L, 500);
+
+        assertThat(plan)
+                .doesNotContain("Seq Scan")
+                .doesNotContain("orders_y2020m01")
+                .contains("using " + partitionName(YearMonth.now()) + "_id_idx ");
+    }
+
+    // The page only selects columns of the covering index; vacuum sets the visibility map so the heap is skipped
+    @Test
+    void orderHistoryShouldBeIndexOnlyScan() {
+        jdbcTemplate.execute("vacuum analyze orders");
+        String sql = SqlRecorder.capture(() -> orderRepository.findFirstHistoryPage("khoa", null, Limit.of(21)));
+
+        String plan = explain(sql, "khoa", nullStatus(), nullStatus(), 21);
+
+        assertThat(plan)
+                .doesNotContain("Seq Scan")
+                .contains("Index Only Scan using " + partitionName(YearMonth.now()) + "_username_created_at_id_idx ");
+    }
+
+    private String explain(String sql, Object... args) {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("set local enable_seqscan = off");
+            List<String> lines = jdbcTemplate.queryForList("explain " + sql, String.class, args);
+            return String.join("\n", lines);
+        });
+    }
+
+    private static SqlParameterValue nullStatus() {
+        return new SqlParameterValue(Types.VARCHAR, null);
+    }
+
+    private static String partitionName(YearMonth month) {
+        return "orders_y%dm%02d".formatted(month.getYear(), month.getMonthValue());
+    }
+
+    // Records the statements prepared by Hibernate on the test thread, the relay and the jobs run on their own
+    public static class SqlRecorder implements StatementInspector {
+        private static final ThreadLocal<List<String>> statements = new ThreadLocal<>();
+
+        static String capture(Supplier<?> query) {
+            statements.set(new ArrayList<>());
+            try {
+                query.get();
+                List<String> captured = statements.get();
+                assertThat(captured).hasSize(1);
+                return captured.getFirst();
+            } finally {
+                statements.remove();
+            }
+        }
+
+        @Override
+        public String inspect(String sql) {
+            List<String> captured = statements.get();
+            if (captured != null) {
+                captured.add(sql);
+            }
+            return sql;
+        }
+    }
+}
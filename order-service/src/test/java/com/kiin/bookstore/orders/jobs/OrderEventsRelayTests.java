@@ -0,0 +1,62 @@
+package com.kiin.bookstore.orders.jobs;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import com.kiin.bookstore.orders.ApplicationProperties;
+import com.kiin.bookstore.orders.domain.OrderEventService;
+import com.kiin.bookstore.orders.domain.OrderEventsSaved;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class OrderEventsRelayTests {
+    private final OrderEventService orderEventService = mock(OrderEventService.class);
+    private OrderEventsRelay relay;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        relay.shutdown();
+    }
+
+    @Test
+    void shouldPublishAsSoonAsEventsAreCommitted() {
+        relay = newRelay(Duration.ofMinutes(1));
+        relay.start();
+        verify(orderEventService, after(200).never()).publishOrderEvents();
+
+        relay.onOrderEventsSaved(new OrderEventsSaved());
+
+        verify(orderEventService, timeout(1000)).publishOrderEvents();
+    }
+
+    @Test
+    void shouldPollWhenNoEventsAreCommitted() {
+        relay = newRelay(Duration.ofMillis(50));
+
+        relay.start();
+
+        verify(orderEventService, timeout(2000).atLeast(2)).publishOrderEvents();
+    }
+
+    @Test
+    void shouldNotPublishBeforeStart() {
+        relay = newRelay(Duration.ofMillis(50));
+
+        relay.onOrderEventsSaved(new OrderEventsSaved());
+
+        verify(orderEventService, after(200).never()).publishOrderEvents();
+    }
+
+    private OrderEventsRelay newRelay(Duration minInterval) {
+        ApplicationProperties properties = mock(ApplicationProperties.class);
+        given(properties.publishOrderEventsMinInterval()).willReturn(minInterval);
+        given(properties.publishOrderEventsMaxInterval()).willReturn(minInterval.multipliedBy(4));
+        given(properties.publishOrderEventsListenNotify()).willReturn(false);
+        return new OrderEventsRelay(orderEventService, mock(DataSource.class), properties);
+    }
+}
@@ -6,6 +6,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 
 import com.kiin.bookstore.orders.AbstractIT;
+import com.kiin.bookstore.orders.domain.models.CursorResult;
 import com.kiin.bookstore.orders.domain.models.OrderSummary;
 import com.kiin.bookstore.orders.testdata.TestDataFactory;
 import io.restassured.common.mapper.TypeRef;
@@ -24,7 +25,7 @@ class OrderControllerTests extends AbstractIT {
     class CreateOrderTests {
         @Test
         void shouldCreateOrderSuccessfully() {
-            mockGetProductByCode("P100", "Product 1", new BigDecimal("25.50"));
+            mockGetProductsByCodes("P100", "Product 1", new BigDecimal("25.50"));
             var payload =
                     """
                         {
@@ -78,7 +79,7 @@ class OrderControllerTests extends AbstractIT {
     class GetOrdersTests {
         @Test
         void shouldGetOrdersSuccessfully() {
-            List<OrderSummary> orderSummaries = given().when()
+            CursorResult<OrderSummary> page = given().when()
                     .header("Authorization", "Bearer " + getToken())
                     .get("/api/orders")
                     .then()
@@ -87,8 +88,65 @@ class OrderControllerTests extends AbstractIT {
                     .body()
                     .as(new TypeRef<>() {});
 
+            assertThat(page.data()).extracting(OrderSummary::orderNumber).containsExactly("order-456", "order-123");
+            assertThat(page.hasNext()).isFalse();
+        }
+
+        @Test
+        void shouldExportAllOrders() {
+            List<OrderSummary> orderSummaries = given().when()
+                    .header("Authorization", "Bearer " + getToken())
+                    .get("/api/orders/export")
+                    .then()
+                    .statusCode(200)
+                    .extract()
+                    .body()
+                    .as(new TypeRef<>() {});
+
             assertThat(orderSummaries).hasSize(2);
         }
+
+        @Test
+        void shouldGetOrdersPageByPage() {
+            String token = getToken();
+            CursorResult<OrderSummary> firstPage = given().when()
+                    .header("Authorization", "Bearer " + token)
+                    .get("/api/orders?limit=1")
+                    .then()
+                    .statusCode(200)
+                    .extract()
+                    .body()
+                    .as(new TypeRef<>() {});
+
+            assertThat(firstPage.data()).extracting(OrderSummary::orderNumber).containsExactly("order-456");
+            assertThat(firstPage.hasNext()).isTrue();
+
+            CursorResult<OrderSummary> secondPage = given().when()
+                    .header("Authorization", "Bearer " + token)
+                    .get("/api/orders?limit=1&after={after}", firstPage.nextCursor())
+                    .then()
+                    .statusCode(200)
+                    .extract()
+                    .body()
+                    .as(new TypeRef<>() {});
+
+            assertThat(secondPage.data()).extracting(OrderSummary::orderNumber).containsExactly("order-123");
+            assertThat(secondPage.hasNext()).isFalse();
+        }
+
+        @Test
+        void shouldFilterOrdersByStatus() {
+            CursorResult<OrderSummary> page = given().when()
+                    .header("Authorization", "Bearer " + getToken())
+                    .get("/api/orders?status=DELIVERED")
+                    .then()
+                    .statusCode(200)
+                    .extract()
+                    .body()
+                    .as(new TypeRef<>() {});
+
+            assertThat(page.data()).isEmpty();
+        }
     }
 
     @Nested
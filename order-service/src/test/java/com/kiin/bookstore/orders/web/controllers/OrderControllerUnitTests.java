@@ -3,6 +3,7 @@ package com.kiin.bookstore.orders.web.controllers;
 import static com.kiin.bookstore.orders.testdata.TestDataFactory.createOrderRequestWithInvalidCustomer;
 import static com.kiin.bookstore.orders.testdata.TestDataFactory.createOrderRequestWithInvalidDeliveryAddress;
 import static com.kiin.bookstore.orders.testdata.TestDataFactory.createOrderRequestWithNoItems;
+import static com.kiin.bookstore.orders.testdata.TestDataFactory.createValidOrderRequest;
 import static org.junit.jupiter.api.Named.named;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 import static org.mockito.ArgumentMatchers.any;
@@ -13,11 +14,14 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kiin.bookstore.orders.clients.catalog.CatalogServiceException;
+import com.kiin.bookstore.orders.domain.IdempotencyKeyStore;
 import com.kiin.bookstore.orders.domain.OrderService;
 import com.kiin.bookstore.orders.domain.SecurityService;
 import com.kiin.bookstore.orders.domain.models.CreateOrderRequest;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -36,6 +40,9 @@ class OrderControllerUnitTests {
     @MockitoBean
     private SecurityService securityService;
 
+    @MockitoBean
+    private IdempotencyKeyStore idempotencyKeyStore;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -61,6 +68,19 @@ class OrderControllerUnitTests {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @WithMockUser
+    void shouldReturnServiceUnavailableWhenCatalogServiceFails() throws Exception {
+        given(orderService.createOrder(eq("khoa"), any(CreateOrderRequest.class)))
+                .willThrow(new CatalogServiceException("Error fetching products for 1 codes", null));
+
+        mockMvc.perform(post("/api/orders")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createValidOrderRequest())))
+                .andExpect(status().isServiceUnavailable());
+    }
+
     static Stream<Arguments> createOrderRequestProvider() {
         return Stream.of(
                 arguments(named("Order with Invalid Customer", createOrderRequestWithInvalidCustomer())),
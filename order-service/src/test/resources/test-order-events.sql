@@ -0,0 +1,10 @@
+truncate table order_events;
+alter sequence order_event_id_seq restart with 100;
+
+insert into order_events (id, order_number, event_id, event_type, payload, created_at) values
+(1, 'order-123', 'event-1', 'ORDER_DELIVERED', '{"eventId":"event-1","orderNumber":"order-123","items":[]}', now() - interval '5 minutes'),
+(2, 'order-123', 'event-2', 'ORDER_DELIVERED', '{"eventId":"event-2","orderNumber":"order-123","items":[]}', now() - interval '4 minutes'),
+(3, 'order-456', 'event-3', 'ORDER_CANCELLED', '{"eventId":"event-3","orderNumber":"order-456","items":[]}', now() - interval '3 minutes'),
+(4, 'order-456', 'event-4', 'ORDER_CANCELLED', '{"eventId":"event-4","orderNumber":"order-456","items":[]}', now() - interval '2 minutes'),
+(5, 'order-456', 'event-5', 'ORDER_PROCESSING_FAILED', '{"eventId":"event-5","orderNumber":"order-456","items":[]}', now() - interval '1 minutes')
+;
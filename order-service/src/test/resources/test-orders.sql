@@ -1,4 +1,5 @@
 truncate table orders cascade;
+truncate table order_archive;
 alter sequence order_id_seq restart with 100;
 alter sequence order_item_id_seq restart with 100;
 
@@ -11,8 +12,12 @@ insert into orders (id,order_number,username,
 (2, 'order-456', 'khoa', 'Prasad', 'prasad@gmail.com', '2222222', '123 Main St', 'Apt 1', 'Hyderabad', 'TS', '500072', 'India', 'NEW', null)
 ;
 
-insert into order_items(order_id, code, name, price, quantity) values
+insert into order_items(order_id, created_at, code, name, price, quantity)
+select o.id, o.created_at, i.code, i.name, i.price, i.quantity
+from (values
 (1, 'P100', 'The Hunger Games', 34.0, 2),
 (1, 'P101', 'To Kill a Mockingbird', 45.40, 1),
 (2, 'P102', 'The Chronicles of Narnia', 44.50, 1)
+) as i(order_id, code, name, price, quantity)
+join orders o on o.id = i.order_id
 ;